@@ -1,6 +1,7 @@
 package com.example.importData;
 
 import com.example.importData.dto.BarDto;
+import com.example.importData.store.BarSegment;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -11,14 +12,11 @@ public class Aggregations {
 
     /** Aggregate 1-minute bars into N-minute bars (N must be >=1 minute). */
     public static List<BarDto> aggregate(List<BarDto> oneMinuteBars, Duration target) {
-        if (target.toMinutes() < 1 || (target.toMinutes() % 1) != 0) {
-            throw new IllegalArgumentException("Target must be whole minutes");
-        }
-        long n = target.toMinutes();
+        int n = bucketWidth(target);
         if (n == 1) return oneMinuteBars;
 
         List<BarDto> out = new ArrayList<>();
-        List<BarDto> bucket = new ArrayList<>((int)n);
+        List<BarDto> bucket = new ArrayList<>(n);
 
         for (BarDto bar : oneMinuteBars) {
             bucket.add(bar);
@@ -31,6 +29,59 @@ public class Aggregations {
         return out;
     }
 
+    /**
+     * Same bucketing as {@link #aggregate(List, Duration)} over column arrays: high/low/volume are
+     * reduced per bucket by {@link BucketKernels#best()} (SIMD when the Vector API is available).
+     */
+    public static List<BarDto> aggregate(BarColumns bars, Duration target) {
+        int n = bucketWidth(target);
+        int buckets = bars.size() / n; // drop partial tail
+
+        double[] high = new double[buckets];
+        double[] low  = new double[buckets];
+        double[] vol  = new double[buckets];
+        BucketKernel k = BucketKernels.best();
+        k.max(bars.high(), n, high);
+        k.min(bars.low(), n, low);
+        k.sum(bars.volume(), n, vol);
+
+        List<BarDto> out = new ArrayList<>(buckets);
+        for (int b = 0; b < buckets; b++) {
+            int first = b * n;
+            int last  = first + n - 1;
+            out.add(new BarDto(Instant.ofEpochMilli(bars.time()[last]),
+                    bars.open()[first], high[b], low[b], bars.close()[last], vol[b]));
+        }
+        return out;
+    }
+
+    /**
+     * Same bucketing as {@link #aggregate(List, Duration)}, but reads the off-heap segment columns
+     * in place, one segment at a time; buckets may span segment boundaries. Only the aggregated bars
+     * land on the heap.
+     */
+    public static List<BarDto> aggregateSegments(Iterable<BarSegment> segments, Duration target) {
+        BarBucket bucket = new BarBucket(bucketWidth(target));
+        List<BarDto> out = new ArrayList<>();
+        for (BarSegment seg : segments) {
+            for (int i = 0; i < seg.size(); i++) {
+                if (bucket.add(seg.time(i), seg.open(i), seg.high(i), seg.low(i), seg.close(i), seg.volume(i))) {
+                    out.add(bucket.bar());
+                }
+            }
+        }
+        // drop partial tail
+        return out;
+    }
+
+    /** Minute bars per bucket for {@code target}; rejects anything but a positive whole number of minutes. */
+    static int bucketWidth(Duration target) {
+        if (target.toMinutes() < 1 || target.toSecondsPart() != 0 || target.toNanosPart() != 0) {
+            throw new IllegalArgumentException("Target must be whole minutes: " + target);
+        }
+        return Math.toIntExact(target.toMinutes());
+    }
+
     private static BarDto mergeBucket(List<BarDto> bucket) {
         Instant t = bucket.get(bucket.size() - 1).time();
         double open  = bucket.get(0).open();
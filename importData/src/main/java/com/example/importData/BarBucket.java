@@ -0,0 +1,54 @@
+package com.example.importData;
+
+import com.example.importData.dto.BarDto;
+
+import java.time.Instant;
+
+/**
+ * Running OHLCV of one bucket of N consecutive minute bars, fed one bar at a time. Shared by the
+ * streaming aggregations ({@link Aggregations#aggregateSegments}, {@link IncrementalAggregator}).
+ */
+final class BarBucket {
+
+    private final int width;
+
+    private int count;
+    private Instant time;
+    private double open, high, low, close, vol;
+
+    BarBucket(int width) {
+        this.width = width;
+    }
+
+    /**
+     * Add the next minute bar. Returns true when it completed the bucket; {@link #bar()} then is the
+     * finished bar until the next call, which starts a new bucket.
+     */
+    boolean add(Instant t, double o, double h, double l, double c, double v) {
+        if (count == 0) {
+            open = o;
+            high = h;
+            low  = l;
+            vol  = v;
+        } else {
+            high = Math.max(high, h);
+            low  = Math.min(low, l);
+            vol += v;
+        }
+        time  = t;
+        close = c;
+        if (++count == width) {
+            count = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /** True when no bar has been added since the last completed bucket. */
+    boolean isEmpty() { return count == 0; }
+
+    /** The bucket as a bar: finished right after {@code add} returned true, in progress otherwise. */
+    BarDto bar() {
+        return new BarDto(time, open, high, low, close, vol);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.importData;
+
+import com.example.importData.dto.BarDto;
+
+import java.util.List;
+
+/** Minute bars as primitive column arrays (time in epoch millis), the input of the SIMD aggregation path. */
+public record BarColumns(
+        long[] time,
+        double[] open,
+        double[] high,
+        double[] low,
+        double[] close,
+        double[] volume
+) {
+    public static BarColumns of(List<BarDto> bars) {
+        int n = bars.size();
+        BarColumns c = new BarColumns(new long[n], new double[n], new double[n], new double[n], new double[n], new double[n]);
+        for (int i = 0; i < n; i++) {
+            BarDto b = bars.get(i);
+            c.time[i]   = b.time().toEpochMilli();
+            c.open[i]   = b.open();
+            c.high[i]   = b.high();
+            c.low[i]    = b.low();
+            c.close[i]  = b.close();
+            c.volume[i] = b.volume();
+        }
+        return c;
+    }
+
+    public int size() { return time.length; }
+}
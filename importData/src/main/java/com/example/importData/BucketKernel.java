@@ -0,0 +1,15 @@
+package com.example.importData;
+
+/**
+ * Per-bucket reductions over fixed-width buckets of a column:
+ * {@code dst[b] = reduce(src[b*width] .. src[b*width + width - 1])} for every {@code b < dst.length}.
+ * Elements of {@code src} past the last full bucket are ignored.
+ */
+public interface BucketKernel {
+
+    void max(double[] src, int width, double[] dst);
+
+    void min(double[] src, int width, double[] dst);
+
+    void sum(double[] src, int width, double[] dst);
+}
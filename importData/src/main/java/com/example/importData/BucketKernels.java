@@ -0,0 +1,26 @@
+package com.example.importData;
+
+/** Picks the {@link BucketKernel} once: SIMD when {@code jdk.incubator.vector} is resolvable, scalar otherwise. */
+public final class BucketKernels {
+
+    private static final BucketKernel SCALAR = new ScalarBucketKernel();
+    private static final BucketKernel BEST = load();
+
+    private BucketKernels() { }
+
+    public static BucketKernel best() { return BEST; }
+
+    public static BucketKernel scalar() { return SCALAR; }
+
+    public static boolean vectorized() { return BEST != SCALAR; }
+
+    private static BucketKernel load() {
+        try {
+            // reflective so that a JVM without --add-modules never links VectorBucketKernel
+            return (BucketKernel) Class.forName("com.example.importData.VectorBucketKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (Exception | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.importData;
 
 import com.example.importData.dto.BarDto;
+import com.example.importData.store.OffHeapBarStore;
 import org.springframework.stereotype.Service;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.BaseBarSeriesBuilder;
@@ -12,6 +13,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -19,12 +21,18 @@ import java.util.TreeMap;
 public class CddBarSeriesService {
 
     private final CddClient client;
+    private final OffHeapBarStore store;
 
-    public CddBarSeriesService(CddClient client) { this.client = client; }
+    public CddBarSeriesService(CddClient client, OffHeapBarStore store) {
+        this.client = client;
+        this.store = store;
+    }
+
+    public OffHeapBarStore store() { return store; }
 
     public BarSeries fetchSeries(String exchange, String symbol, String interval, Duration target) throws Exception {
         List<BarDto> oneMinute = client.fetchMinuteBars(exchange, symbol, interval);
-        List<BarDto> agg = Aggregations.aggregate(oneMinute, target);
+        List<BarDto> agg = Aggregations.aggregate(BarColumns.of(oneMinute), target);
         String name = symbol + "-" + target.toMinutes() + "m-cdd";
         BarSeries series = new BaseBarSeriesBuilder().withName(name).build();
         for (BarDto b : agg) {
@@ -42,7 +50,7 @@ public class CddBarSeriesService {
 
     public BarSeries fetchSeriesFromUrl(String csvUrl, String seriesName, Duration target) throws Exception {
         List<BarDto> oneMinute = client.fetchFromDirectUrl(csvUrl);
-        List<BarDto> agg = Aggregations.aggregate(oneMinute, target);
+        List<BarDto> agg = Aggregations.aggregate(BarColumns.of(oneMinute), target);
         BarSeries series = new BaseBarSeriesBuilder().withName(seriesName).build();
         for (BarDto b : agg) {
             series.addBar(new BaseBar(target, b.time(), 
@@ -63,7 +71,7 @@ public class CddBarSeriesService {
         // 2) dedupe + sort ascending
         List<BarDto> cleaned = dedupeAndSort(all);
         // 3) aggregate
-        List<BarDto> agg = Aggregations.aggregate(cleaned, target);
+        List<BarDto> agg = Aggregations.aggregate(BarColumns.of(cleaned), target);
         // 4) build TA4J series
         String name = symbol + "-" + target.toMinutes() + "m-local";
         BarSeries series = new BaseBarSeriesBuilder().withName(name).build();
@@ -99,7 +107,7 @@ public class CddBarSeriesService {
                                              Duration target) throws Exception {
         List<BarDto> all = client.fetchAllFromClasspathDir(classpathDir, exchange, symbol, "minute");
         List<BarDto> cleaned = dedupeAndSort(all);                // your existing helper
-        List<BarDto> agg = Aggregations.aggregate(cleaned, target);
+        List<BarDto> agg = Aggregations.aggregate(BarColumns.of(cleaned), target);
         BarSeries s = new BaseBarSeriesBuilder().withName(symbol + "-" + target.toMinutes() + "m-local").build();
         for (BarDto b : agg) s.addBar(new BaseBar(target, b.time(), 
                 DecimalNum.valueOf(b.open()), 
@@ -111,4 +119,41 @@ public class CddBarSeriesService {
                 0));
         return s;
     }
+
+    /**
+     * Load every matching CSV of a folder into the off-heap store, one file on the heap at a time.
+     * Returns the bars now stored for the series (duplicates merged, spilled periods included).
+     */
+    public long loadFolderIntoStore(Path folder, String exchange, String symbol) throws Exception {
+        String key = storeKey(exchange, symbol);
+        for (Path p : client.listFromFolder(folder, exchange, symbol, "minute")) {
+            store.put(key, dedupeAndSort(client.fetchFromPath(p)));
+        }
+        return store.barCount(key);
+    }
+
+    /** Aggregate straight from the off-heap segments; only the N-minute bars are materialized. */
+    public BarSeries fetchSeriesFromStore(String exchange, String symbol, Duration target) {
+        List<BarDto> agg;
+        try (OffHeapBarStore.Lease lease = store.acquire(storeKey(exchange, symbol))) {
+            if (lease.isEmpty()) {
+                throw new IllegalStateException("No bars in store for " + exchange + "_" + symbol);
+            }
+            agg = Aggregations.aggregateSegments(lease, target);
+        }
+        BarSeries s = new BaseBarSeriesBuilder().withName(symbol + "-" + target.toMinutes() + "m-store").build();
+        for (BarDto b : agg) s.addBar(new BaseBar(target, b.time(),
+                DecimalNum.valueOf(b.open()),
+                DecimalNum.valueOf(b.high()),
+                DecimalNum.valueOf(b.low()),
+                DecimalNum.valueOf(b.close()),
+                DecimalNum.valueOf(b.volume()),
+                DecimalNum.valueOf(0), // amount - not available in BarDto
+                0));
+        return s;
+    }
+
+    private static String storeKey(String exchange, String symbol) {
+        return (exchange + "_" + symbol).toLowerCase(Locale.ROOT);
+    }
 }
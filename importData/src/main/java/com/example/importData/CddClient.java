@@ -12,15 +12,12 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -32,10 +29,15 @@ import java.util.stream.Collectors;
 public class CddClient {
 
     private final CddProperties props;
-    private final HttpClient http = HttpClient.newHttpClient();
+    // HTTP/1.1 on purpose: with HTTP/2 all "parallel" Range requests would share one TCP connection
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ChunkedDownloader downloader;
+    // one lock per download target: concurrent calls for the same URI must not share .part/.progress files
+    private final Map<Path, Object> downloadLocks = new ConcurrentHashMap<>();
 
     public CddClient(CddProperties props) {
         this.props = props;
+        this.downloader = new ChunkedDownloader(http, props.getDownloadParallelism(), props.getDownloadChunkSize());
     }
 
     public List<BarDto> fetchMinuteBars(String exchange, String symbol, String interval) throws Exception {
@@ -63,85 +65,48 @@ public class CddClient {
     }
 
     private List<BarDto> downloadAndParse(URI uri) throws Exception {
-        HttpRequest req = HttpRequest.newBuilder(uri).GET().build();
-        HttpResponse<byte[]> resp = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
-        if (resp.statusCode() != 200) {
-            throw new IllegalStateException("CDD HTTP " + resp.statusCode() + " at " + uri);
+        Path target = downloadTarget(uri);
+        // parallel Range download; a failed transfer leaves .part/.progress behind for the next call to resume
+        synchronized (downloadLocks.computeIfAbsent(target, k -> new Object())) {
+            Path file = downloader.download(uri, target);
+            try {
+                return fetchFromPath(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
         }
-        String body = new String(resp.body(), StandardCharsets.UTF_8);
-        return parseCsv(body);
+    }
+
+    /** File name from the URL plus a hash of the full URI, so different URLs never share a target. */
+    private Path downloadTarget(URI uri) throws Exception {
+        String p = Optional.ofNullable(uri.getPath()).orElse("");
+        String name = p.substring(p.lastIndexOf('/') + 1);
+        if (name.isBlank()) name = "download.csv";
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(uri.toString().getBytes(StandardCharsets.UTF_8));
+        String hash = HexFormat.of().formatHex(digest, 0, 8);
+        int dot = name.lastIndexOf('.');
+        name = dot > 0 ? name.substring(0, dot) + "-" + hash + name.substring(dot) : name + "-" + hash;
+        return Path.of(props.getDownloadDir()).resolve(name);
     }
 
     private List<BarDto> parseCsv(String csv) throws Exception {
         BufferedReader reader = new BufferedReader(new InputStreamReader(
                 new java.io.ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
 
-        List<String> lines = reader.lines().filter(l -> !l.trim().startsWith("#") && !l.trim().isEmpty()).collect(Collectors.toList());
+        List<String> lines = reader.lines().filter(l -> !CddCsvFormat.isSkippable(l)).collect(Collectors.toList());
         if (lines.isEmpty()) return List.of();
 
-        String header = lines.get(0);
-        String[] cols = header.split(",", -1);
-        Map<String,Integer> idx = new HashMap<>();
-        for (int i = 0; i < cols.length; i++) {
-            idx.put(normalize(cols[i]), i);
-        }
-
-        Integer tIdx = idx.getOrDefault("unix", idx.get("timestamp"));
-        if (tIdx == null) tIdx = idx.get("date");
-        Integer oIdx = idx.get("open");
-        Integer hIdx = idx.get("high");
-        Integer lIdx = idx.get("low");
-        Integer cIdx = idx.get("close");
-        Integer vIdx = firstNonNull(
-                idx.get("volumebtc"), idx.get("volume(crypto)"), idx.get("volume crypto"),
-                idx.get("volume"), idx.get("volumebaseccy"), idx.get("volumebase")
-        );
-
-        if (oIdx == null || hIdx == null || lIdx == null || cIdx == null || vIdx == null || tIdx == null) {
-            throw new IllegalStateException("CSV missing required columns. Got: " + header);
-        }
-
+        CddCsvFormat format = CddCsvFormat.fromHeader(lines.get(0));
         List<BarDto> out = new ArrayList<>(lines.size());
-        DateTimeFormatter dt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
-
         for (int i = 1; i < lines.size(); i++) {
-            String[] f = lines.get(i).split(",", -1);
-            if (f.length < cols.length) continue;
-
-            Instant time;
-            String tRaw = f[tIdx].trim();
-            if (tRaw.matches("\\d+")) {
-                long v = Long.parseLong(tRaw);
-                if (tRaw.length() > 10) time = Instant.ofEpochMilli(v);
-                else time = Instant.ofEpochSecond(v);
-            } else {
-                time = Instant.from(dt.parse(tRaw));
-            }
-
-            double open  = parseDoubleSafe(f[oIdx]);
-            double high  = parseDoubleSafe(f[hIdx]);
-            double low   = parseDoubleSafe(f[lIdx]);
-            double close = parseDoubleSafe(f[cIdx]);
-            double vol   = parseDoubleSafe(f[vIdx]);
-
-            out.add(new BarDto(time, open, high, low, close, vol));
+            BarDto bar = format.parseRow(lines.get(i));
+            if (bar != null) out.add(bar);
         }
 
         out.sort(Comparator.comparing(BarDto::time));
         return out;
     }
 
-    private static String normalize(String s) {
-        return s.toLowerCase(Locale.ROOT).replace(" ", "").replace("_","").trim();
-    }
-    @SafeVarargs private static <T> T firstNonNull(T... arr) {
-        for (T t : arr) if (t != null) return t;
-        return null;
-    }
-    private static double parseDoubleSafe(String s) {
-        try { return Double.parseDouble(s.trim()); } catch (Exception e) { return Double.NaN; }
-    }
-
     public List<BarDto> fetchFromPath(Path path) throws Exception {
     String body = Files.readString(path, StandardCharsets.UTF_8);
     return parseCsv(body);
@@ -150,6 +115,15 @@ public class CddClient {
     /** Load ALL CSVs in a folder matching exchange+symbol+interval (e.g., Binance_BTCUSDT_minute*.csv). */
 /** Load ALL CSVs in a FOLDER that match the CDD naming (supports year between symbol & interval). */
     public List<BarDto> fetchAllFromFolder(Path folder, String exchange, String symbol, String interval) throws Exception {
+        List<BarDto> merged = new ArrayList<>();
+        for (Path p : listFromFolder(folder, exchange, symbol, interval)) {
+            merged.addAll(fetchFromPath(p));
+        }
+        return merged;
+    }
+
+    /** CSVs in a FOLDER that match the CDD naming, sorted by file name (callers can load them one at a time). */
+    public List<Path> listFromFolder(Path folder, String exchange, String symbol, String interval) throws Exception {
         Pattern pat = cddFilePattern(exchange, symbol, interval);
 
         if (!Files.exists(folder)) {
@@ -168,12 +142,7 @@ public class CddClient {
             throw new IllegalStateException("No CSVs matching pattern for " + exchange + "_" + symbol + "_<YEAR>_" + interval
                     + " under " + folder.toAbsolutePath());
         }
-
-        List<BarDto> merged = new ArrayList<>();
-        for (Path p : files) {
-            merged.addAll(fetchFromPath(p));
-        }
-        return merged;
+        return files;
     }
 
     /** Load ALL CSVs from CLASSPATH dir that match the CDD naming (supports year between symbol & interval). */
@@ -211,7 +180,7 @@ public class CddClient {
 
 
     // NEW: filename pattern helper (supports both new and old layouts)
-    private static Pattern cddFilePattern(String exchange, String symbol, String interval) {
+    static Pattern cddFilePattern(String exchange, String symbol, String interval) {
         String ex = Pattern.quote(exchange.toLowerCase(Locale.ROOT));
         String sy = Pattern.quote(symbol.toLowerCase(Locale.ROOT));
         String iv = Pattern.quote(interval.toLowerCase(Locale.ROOT));
@@ -0,0 +1,97 @@
+package com.example.importData;
+
+import com.example.importData.dto.BarDto;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column layout of a CDD CSV resolved from its header line (flexible column names),
+ * so data rows can be parsed one at a time, e.g. when tailing a file.
+ */
+public final class CddCsvFormat {
+
+    private static final DateTimeFormatter DT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    private final int columns;
+    private final int tIdx, oIdx, hIdx, lIdx, cIdx, vIdx;
+
+    private CddCsvFormat(int columns, int tIdx, int oIdx, int hIdx, int lIdx, int cIdx, int vIdx) {
+        this.columns = columns;
+        this.tIdx = tIdx;
+        this.oIdx = oIdx;
+        this.hIdx = hIdx;
+        this.lIdx = lIdx;
+        this.cIdx = cIdx;
+        this.vIdx = vIdx;
+    }
+
+    public static CddCsvFormat fromHeader(String header) {
+        String[] cols = header.split(",", -1);
+        Map<String,Integer> idx = new HashMap<>();
+        for (int i = 0; i < cols.length; i++) {
+            idx.put(normalize(cols[i]), i);
+        }
+
+        Integer tIdx = idx.getOrDefault("unix", idx.get("timestamp"));
+        if (tIdx == null) tIdx = idx.get("date");
+        Integer oIdx = idx.get("open");
+        Integer hIdx = idx.get("high");
+        Integer lIdx = idx.get("low");
+        Integer cIdx = idx.get("close");
+        Integer vIdx = firstNonNull(
+                idx.get("volumebtc"), idx.get("volume(crypto)"), idx.get("volume crypto"),
+                idx.get("volume"), idx.get("volumebaseccy"), idx.get("volumebase")
+        );
+
+        if (oIdx == null || hIdx == null || lIdx == null || cIdx == null || vIdx == null || tIdx == null) {
+            throw new IllegalStateException("CSV missing required columns. Got: " + header);
+        }
+        return new CddCsvFormat(cols.length, tIdx, oIdx, hIdx, lIdx, cIdx, vIdx);
+    }
+
+    /** Comment ('#') and blank lines carry no header or data. */
+    public static boolean isSkippable(String line) {
+        String t = line.trim();
+        return t.isEmpty() || t.startsWith("#");
+    }
+
+    /** Parse one data row; null when it has fewer fields than the header. */
+    public BarDto parseRow(String line) {
+        String[] f = line.split(",", -1);
+        if (f.length < columns) return null;
+
+        Instant time;
+        String tRaw = f[tIdx].trim();
+        if (tRaw.matches("\\d+")) {
+            long v = Long.parseLong(tRaw);
+            if (tRaw.length() > 10) time = Instant.ofEpochMilli(v);
+            else time = Instant.ofEpochSecond(v);
+        } else {
+            time = Instant.from(DT.parse(tRaw));
+        }
+
+        double open  = parseDoubleSafe(f[oIdx]);
+        double high  = parseDoubleSafe(f[hIdx]);
+        double low   = parseDoubleSafe(f[lIdx]);
+        double close = parseDoubleSafe(f[cIdx]);
+        double vol   = parseDoubleSafe(f[vIdx]);
+
+        return new BarDto(time, open, high, low, close, vol);
+    }
+
+    private static String normalize(String s) {
+        return s.toLowerCase(Locale.ROOT).replace(" ", "").replace("_","").trim();
+    }
+    @SafeVarargs private static <T> T firstNonNull(T... arr) {
+        for (T t : arr) if (t != null) return t;
+        return null;
+    }
+    private static double parseDoubleSafe(String s) {
+        try { return Double.parseDouble(s.trim()); } catch (Exception e) { return Double.NaN; }
+    }
+}
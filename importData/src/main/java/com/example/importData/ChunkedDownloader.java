@@ -0,0 +1,227 @@
+package com.example.importData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads a URL into a local file using parallel HTTP Range requests.
+ * Chunks are written with positional FileChannel writes into a preallocated
+ * "&lt;target&gt;.part" file, and finished chunk indices are appended to
+ * "&lt;target&gt;.progress" so an interrupted download resumes where it stopped.
+ * Falls back to a single stream when the server ignores Range.
+ */
+public class ChunkedDownloader {
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("^bytes\\s+\\d+-\\d+/(\\d+)$");
+
+    private final HttpClient http;
+    private final int parallelism;
+    private final long chunkSize;
+
+    public ChunkedDownloader(HttpClient http, int parallelism, long chunkSize) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be >= 1");
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be >= 1");
+        this.http = http;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Download {@code uri} to {@code target}, resuming a previous partial download if one matches. */
+    public Path download(URI uri, Path target) throws Exception {
+        Path dir = target.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path part = sibling(target, ".part");
+        Path progress = sibling(target, ".progress");
+
+        // Probe with a 1-byte range: 206 tells us the total size, 200 means Range is ignored
+        HttpRequest probe = HttpRequest.newBuilder(uri).header("Range", "bytes=0-0").GET().build();
+        HttpResponse<InputStream> resp = http.send(probe, HttpResponse.BodyHandlers.ofInputStream());
+        long total;
+        String validator;
+        try (InputStream body = resp.body()) {
+            if (resp.statusCode() == 200) {
+                // server ignored Range -> the probe response already is the single full stream
+                Files.deleteIfExists(progress);
+                Files.copy(body, part, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+                return target;
+            }
+            if (resp.statusCode() != 206) {
+                throw new IllegalStateException("CDD HTTP " + resp.statusCode() + " at " + uri);
+            }
+            total = parseTotal(resp.headers().firstValue("Content-Range").orElse(""));
+            // only a strong ETag identifies the exact bytes; a weak one never matches in If-Range (RFC 9110)
+            validator = resp.headers().firstValue("ETag")
+                    .filter(tag -> !tag.startsWith("W/"))
+                    .or(() -> resp.headers().firstValue("Last-Modified"))
+                    .orElse("");
+        }
+        if (total < 0) {
+            // unknown length (e.g. "bytes 0-0/*") -> cannot split, fetch in one go
+            return singleStream(uri, target, part, progress);
+        }
+
+        Set<Integer> done = loadProgress(progress, part, total, validator);
+        int chunks = (int) ((total + chunkSize - 1) / chunkSize);
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < chunks; i++) {
+            if (!done.contains(i)) pending.add(i);
+        }
+
+        try (FileChannel ch = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // preallocate so every chunk can be written at its own offset
+            if (total > 0 && ch.size() < total) ch.write(ByteBuffer.wrap(new byte[1]), total - 1);
+            if (!pending.isEmpty()) fetchChunks(uri, ch, pending, total, validator, progress);
+            ch.force(true);
+        } catch (RangeIgnoredException e) {
+            // the file changed since the probe, or Range is not honoured after all -> start over in one stream
+            Files.deleteIfExists(part);
+            Files.deleteIfExists(progress);
+            return singleStream(uri, target, part, progress);
+        }
+
+        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(progress);
+        return target;
+    }
+
+    private void fetchChunks(URI uri, FileChannel ch, List<Integer> pending, long total,
+                             String validator, Path progress) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, pending.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>(pending.size());
+            for (int idx : pending) {
+                long start = idx * chunkSize;
+                long end = Math.min(total, start + chunkSize) - 1;
+                futures.add(pool.submit(() -> {
+                    fetchChunk(uri, ch, start, end, validator);
+                    markDone(progress, ch, idx);
+                    return null;
+                }));
+            }
+            // wait for every chunk so that all finished ones are recorded before failing
+            Exception first = null;
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    // a full-file answer makes the partial download worthless, stop right away
+                    if (ex.getCause() instanceof RangeIgnoredException r) throw r;
+                    if (first == null) first = ex.getCause() instanceof Exception e ? e : ex;
+                }
+            }
+            if (first != null) throw first;
+        } finally {
+            pool.shutdownNow();
+            // no chunk may still write into the file or the progress log once we return
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void fetchChunk(URI uri, FileChannel ch, long start, long end, String validator) throws Exception {
+        HttpRequest.Builder rb = HttpRequest.newBuilder(uri).header("Range", "bytes=" + start + "-" + end).GET();
+        // If-Range: a changed file comes back as 200 instead of mixing old and new bytes
+        if (!validator.isEmpty()) rb.header("If-Range", validator);
+        HttpResponse<InputStream> resp = http.send(rb.build(), HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream in = resp.body()) {
+            if (resp.statusCode() == 200) {
+                throw new RangeIgnoredException("CDD HTTP 200 instead of 206 for range " + start + "-" + end + " at " + uri);
+            }
+            if (resp.statusCode() != 206) {
+                throw new IllegalStateException("CDD HTTP " + resp.statusCode() + " for range "
+                        + start + "-" + end + " at " + uri);
+            }
+            byte[] buf = new byte[64 * 1024];
+            long pos = start;
+            int n;
+            while (pos <= end && (n = in.read(buf, 0, (int) Math.min(buf.length, end - pos + 1))) != -1) {
+                ByteBuffer bb = ByteBuffer.wrap(buf, 0, n);
+                while (bb.hasRemaining()) pos += ch.write(bb, pos);
+            }
+            if (pos != end + 1) {
+                throw new IOException("Short read for range " + start + "-" + end + " at " + uri
+                        + ": got " + (pos - start) + " of " + (end - start + 1) + " bytes");
+            }
+        }
+    }
+
+    private synchronized void markDone(Path progress, FileChannel ch, int idx) throws IOException {
+        // chunk bytes must be on disk before the progress file claims them
+        ch.force(false);
+        Files.writeString(progress, idx + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Progress file layout: line 1 = total length, line 2 = chunk size, line 3 = ETag/Last-Modified,
+     * then one finished chunk index per line. Indices only mean something for the chunk size they were
+     * written with, so a different chunk size, like a changed server file, discards the partial download.
+     */
+    private Set<Integer> loadProgress(Path progress, Path part, long total, String validator) throws IOException {
+        Set<Integer> done = new HashSet<>();
+        if (Files.exists(progress) && Files.exists(part)) {
+            List<String> lines = Files.readAllLines(progress, StandardCharsets.UTF_8);
+            if (lines.size() >= 3 && lines.get(0).equals(Long.toString(total))
+                    && lines.get(1).equals(Long.toString(chunkSize)) && lines.get(2).equals(validator)) {
+                for (int i = 3; i < lines.size(); i++) {
+                    String l = lines.get(i).trim();
+                    // a torn last line from a crash is simply ignored
+                    if (l.matches("\\d+")) done.add(Integer.parseInt(l));
+                }
+                return done;
+            }
+        }
+        Files.deleteIfExists(part);
+        Files.writeString(progress, total + "\n" + chunkSize + "\n" + validator + "\n", StandardCharsets.UTF_8);
+        return done;
+    }
+
+    private Path singleStream(URI uri, Path target, Path part, Path progress) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(uri).GET().build();
+        HttpResponse<Path> resp = http.send(req, HttpResponse.BodyHandlers.ofFile(part));
+        if (resp.statusCode() != 200) {
+            throw new IllegalStateException("CDD HTTP " + resp.statusCode() + " at " + uri);
+        }
+        Files.deleteIfExists(progress);
+        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+
+    private static long parseTotal(String contentRange) {
+        Matcher m = CONTENT_RANGE.matcher(contentRange.trim());
+        return m.matches() ? Long.parseLong(m.group(1)) : -1;
+    }
+
+    /** A chunk request was answered with the whole file (validator mismatch or Range ignored). */
+    private static final class RangeIgnoredException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        RangeIgnoredException(String message) { super(message); }
+    }
+
+    private static Path sibling(Path target, String suffix) {
+        return target.resolveSibling(target.getFileName().toString() + suffix);
+    }
+}
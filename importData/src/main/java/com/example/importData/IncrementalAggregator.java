@@ -0,0 +1,49 @@
+package com.example.importData;
+
+import com.example.importData.dto.BarDto;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Same bucketing as {@link Aggregations#aggregate(java.util.List, Duration)} (every N consecutive
+ * minute bars form one bar), but fed one minute bar at a time with O(1) work per bar.
+ * Not thread-safe; callers synchronize.
+ */
+public class IncrementalAggregator {
+
+    /** A finished N-minute bar ({@code complete}) or the in-progress bucket so far. */
+    public record Update(BarDto bar, boolean complete) {}
+
+    private final BarBucket bucket;
+
+    private Instant lastInput;
+    private BarDto lastCompleted;
+
+    public IncrementalAggregator(Duration target) {
+        this.bucket = new BarBucket(Aggregations.bucketWidth(target));
+    }
+
+    /**
+     * Add the next minute bar. Returns null when the bar is ignored (not newer than the last one,
+     * or malformed like the rows {@code dedupeAndSort} drops), otherwise the resulting update.
+     */
+    public Update add(BarDto bar) {
+        if (lastInput != null && !bar.time().isAfter(lastInput)) return null;
+        if (!Double.isFinite(bar.open()) || !Double.isFinite(bar.high()) ||
+            !Double.isFinite(bar.low())  || !Double.isFinite(bar.close())) return null;
+        lastInput = bar.time();
+
+        boolean complete = bucket.add(bar.time(), bar.open(), bar.high(), bar.low(), bar.close(), bar.volume());
+        BarDto current = bucket.bar();
+        if (complete) lastCompleted = current;
+        return new Update(current, complete);
+    }
+
+    /** The in-progress bucket, or null when the last bar completed one. */
+    public BarDto partial() {
+        return bucket.isEmpty() ? null : bucket.bar();
+    }
+
+    public BarDto lastCompleted() { return lastCompleted; }
+}
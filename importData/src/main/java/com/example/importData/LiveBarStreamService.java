@@ -0,0 +1,415 @@
+package com.example.importData;
+
+import com.example.importData.config.CddProperties;
+import com.example.importData.dto.BarDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Live N-minute bars from the minute CSVs in the local data folder. A WatchService reports
+ * appends; only the bytes after each file's last read offset are parsed and fed to an
+ * {@link IncrementalAggregator}, and every update is pushed to the stream's listeners.
+ * <p>
+ * Threads: the watch thread only hands changed files to the owning stream's worker, which does
+ * all reading and aggregation. Listeners are called from a shared delivery pool, one queue per
+ * subscriber, so a slow client only ever delays itself.
+ */
+@Service
+public class LiveBarStreamService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveBarStreamService.class);
+
+    // finished bars a subscriber may fall behind by before it is dropped; partial bars are coalesced
+    private static final int MAX_BACKLOG = 1024;
+
+    /** Receives every update of a stream; throwing unsubscribes the listener. */
+    public interface Listener {
+        void onUpdate(IncrementalAggregator.Update update) throws Exception;
+
+        /**
+         * Called once when the service ends the subscription: the listener fell too far behind, threw,
+         * or the service shuts down. Not called when the caller closes the subscription itself.
+         */
+        default void onClose() { }
+    }
+
+    private final Path folder;
+    private final Map<String, LiveStream> streams = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService delivery = Executors.newCachedThreadPool(daemon("cdd-live-delivery"));
+    private WatchService watcher;
+    private Thread watchThread;
+
+    public LiveBarStreamService(CddProperties props) {
+        this.folder = Path.of(props.getLocalDir());
+    }
+
+    /**
+     * Subscribe to exchange/symbol at the target timeframe. The listener first gets the last
+     * finished bar and the in-progress bar (if any), then every update. Close the result to unsubscribe.
+     */
+    public AutoCloseable subscribe(String exchange, String symbol, Duration target, Listener listener) throws IOException {
+        ensureWatching();
+        Subscriber sub;
+        synchronized (this) {
+            String key = (exchange + "_" + symbol + "_" + target.toMinutes()).toLowerCase(Locale.ROOT);
+            LiveStream s = streams.get(key);
+            if (s == null) {
+                // registered before its catch-up runs: events from now on queue up behind it on the worker
+                s = new LiveStream(key, CddClient.cddFilePattern(exchange, symbol, "minute"), target);
+                streams.put(key, s);
+                s.startCatchUp();
+            }
+            sub = new Subscriber(s, listener);
+            subscribers.add(sub);
+            s.add(sub);
+        }
+        return () -> sub.close(false);
+    }
+
+    /** Streams currently tailed (each has at least one subscriber). */
+    public int streamCount() { return streams.size(); }
+
+    private synchronized void unsubscribe(Subscriber sub) {
+        subscribers.remove(sub);
+        LiveStream s = sub.stream;
+        if (s.remove(sub) == 0) {
+            // nobody listens any more -> stop tailing this symbol/timeframe
+            streams.remove(s.key, s);
+            s.stop();
+        }
+    }
+
+    private synchronized void ensureWatching() throws IOException {
+        if (watcher != null) return;
+        if (!Files.isDirectory(folder)) {
+            throw new IllegalStateException("Folder not found: " + folder.toAbsolutePath());
+        }
+        watcher = folder.getFileSystem().newWatchService();
+        folder.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watchThread = new Thread(this::watchLoop, "cdd-local-tail");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean overflow = false;
+            Set<Path> changed = new LinkedHashSet<>();
+            for (WatchEvent<?> ev : key.pollEvents()) {
+                if (ev.kind() == StandardWatchEventKinds.OVERFLOW) overflow = true;
+                else changed.add(folder.resolve((Path) ev.context()));
+            }
+            key.reset();
+
+            for (LiveStream s : streams.values()) {
+                // events were lost -> re-check every file; offsets make this cheap
+                if (overflow) s.submitRescan();
+                else for (Path p : changed) if (s.matches(p)) s.submitTail(p);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void destroy() throws Exception {
+        if (watcher != null) watcher.close();
+        if (watchThread != null) watchThread.interrupt();
+        // tell every subscriber, so e.g. SSE responses are completed instead of left hanging
+        for (Subscriber sub : subscribers) sub.close(true);
+        for (LiveStream s : streams.values()) s.stop();
+        streams.clear();
+        delivery.shutdownNow();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** One symbol/timeframe. All file reading and aggregation runs on its single worker thread. */
+    private final class LiveStream {
+        private final String key;
+        private final Pattern pattern;
+        private final IncrementalAggregator agg;
+        private final ExecutorService worker;
+        // worker-confined
+        private final Map<Path, Long> offsets = new HashMap<>();
+        private final Map<Path, CddCsvFormat> formats = new HashMap<>();
+        // files with a tail already queued; more events for them are coalesced
+        private final Set<Path> dirty = ConcurrentHashMap.newKeySet();
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private int subscriberCount; // guarded by the service lock
+
+        LiveStream(String key, Pattern pattern, Duration target) {
+            this.key = key;
+            this.pattern = pattern;
+            this.agg = new IncrementalAggregator(target);
+            this.worker = Executors.newSingleThreadExecutor(daemon("cdd-live-" + key));
+        }
+
+        boolean matches(Path p) {
+            return pattern.matcher(p.getFileName().toString()).matches();
+        }
+
+        void startCatchUp() {
+            worker.execute(this::catchUp);
+        }
+
+        void submitTail(Path p) {
+            if (dirty.add(p)) execute(() -> {
+                dirty.remove(p);
+                tail(p);
+            });
+        }
+
+        void submitRescan() {
+            execute(this::rescan);
+        }
+
+        /** Called under the service lock; the snapshot is taken on the worker, between two updates. */
+        void add(Subscriber sub) {
+            subscriberCount++;
+            execute(() -> {
+                BarDto last = agg.lastCompleted();
+                BarDto partial = agg.partial();
+                if (last != null) sub.offer(new IncrementalAggregator.Update(last, true));
+                if (partial != null) sub.offer(new IncrementalAggregator.Update(partial, false));
+                if (!sub.isClosed()) subscribers.add(sub);
+            });
+        }
+
+        /** Called under the service lock; returns the subscribers left. */
+        int remove(Subscriber sub) {
+            subscribers.remove(sub);
+            return --subscriberCount;
+        }
+
+        void stop() {
+            worker.shutdownNow();
+        }
+
+        private void execute(Runnable task) {
+            if (!worker.isShutdown()) {
+                try {
+                    worker.execute(task);
+                } catch (RejectedExecutionException e) {
+                    // stopped concurrently, nothing left to deliver to
+                }
+            }
+        }
+
+        /** Initial load: all matching files, time-sorted (CDD history files are newest-first), no push. */
+        private void catchUp() {
+            List<BarDto> rows = new ArrayList<>();
+            try {
+                for (Path p : matchingFiles()) rows.addAll(readAppended(p));
+            } catch (IOException e) {
+                log.warn("Catch-up of {} in {} failed: {}", key, folder, e.toString());
+            }
+            rows.sort(Comparator.comparing(BarDto::time));
+            for (BarDto b : rows) agg.add(b);
+        }
+
+        private void tail(Path p) {
+            List<BarDto> rows;
+            try {
+                rows = readAppended(p);
+            } catch (IOException e) {
+                // offset is only advanced after a successful read, the next event retries
+                log.debug("Reading {} failed, retrying on next change: {}", p, e.toString());
+                return;
+            }
+            for (BarDto b : rows) {
+                IncrementalAggregator.Update u = agg.add(b);
+                if (u != null) for (Subscriber s : subscribers) s.offer(u);
+            }
+        }
+
+        private void rescan() {
+            try {
+                for (Path p : matchingFiles()) tail(p);
+            } catch (IOException e) {
+                log.debug("Rescan of {} failed: {}", folder, e.toString());
+            }
+        }
+
+        private List<Path> matchingFiles() throws IOException {
+            try (var stream = Files.list(folder)) {
+                return stream.filter(this::matches)
+                        .sorted(Comparator.comparing(p -> p.getFileName().toString().toLowerCase(Locale.ROOT)))
+                        .toList();
+            }
+        }
+
+        /**
+         * Parse the complete lines appended to {@code p} since the last call; a trailing partial line waits.
+         * The offset always moves past every complete line: a bad row is logged and skipped, never re-read.
+         */
+        private List<BarDto> readAppended(Path p) throws IOException {
+            long off = offsets.getOrDefault(p, 0L);
+            ByteBuffer buf;
+            try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+                long size = ch.size();
+                if (size < off) {
+                    // truncated or replaced -> start over, header included
+                    off = 0;
+                    formats.remove(p);
+                }
+                if (size == off) return List.of();
+                buf = ByteBuffer.allocate(Math.toIntExact(size - off));
+                while (buf.hasRemaining() && ch.read(buf, off + buf.position()) > 0) { }
+            }
+
+            byte[] bytes = buf.array();
+            int end = buf.position() - 1;
+            while (end >= 0 && bytes[end] != '\n') end--;
+            if (end < 0) return List.of();
+            offsets.put(p, off + end + 1);
+
+            List<BarDto> out = new ArrayList<>();
+            for (String line : new String(bytes, 0, end + 1, StandardCharsets.UTF_8).split("\n")) {
+                if (CddCsvFormat.isSkippable(line)) continue;
+                try {
+                    CddCsvFormat format = formats.get(p);
+                    if (format == null) {
+                        formats.put(p, CddCsvFormat.fromHeader(line.strip()));
+                        continue;
+                    }
+                    BarDto bar = format.parseRow(line.strip());
+                    if (bar != null) out.add(bar);
+                } catch (RuntimeException e) {
+                    log.warn("Skipping bad line in {}: '{}' ({})", p.getFileName(), line.strip(), e.toString());
+                }
+            }
+            return out;
+        }
+    }
+
+    /**
+     * Per-subscriber mailbox drained on the delivery pool. Finished bars queue up in order (bounded);
+     * a newer partial bar replaces an undelivered one, and a finished bar supersedes the partial of its bucket.
+     */
+    private final class Subscriber {
+        private final LiveStream stream;
+        private final Listener listener;
+        private final ArrayDeque<IncrementalAggregator.Update> finished = new ArrayDeque<>();
+        private IncrementalAggregator.Update partial;
+        private boolean scheduled;
+        private boolean closed;
+        private boolean unsubscribed;
+
+        Subscriber(LiveStream stream, Listener listener) {
+            this.stream = stream;
+            this.listener = listener;
+        }
+
+        synchronized void offer(IncrementalAggregator.Update u) {
+            if (closed) return;
+            if (u.complete()) {
+                if (finished.size() >= MAX_BACKLOG) {
+                    log.warn("Dropping live subscriber of {}: more than {} bars behind", stream.key, MAX_BACKLOG);
+                    closed = true;
+                    delivery.execute(() -> close(true));
+                    return;
+                }
+                finished.add(u);
+                partial = null;
+            } else {
+                partial = u;
+            }
+            if (!scheduled) {
+                scheduled = true;
+                delivery.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                IncrementalAggregator.Update u;
+                synchronized (this) {
+                    u = finished.poll();
+                    if (u == null) {
+                        u = partial;
+                        partial = null;
+                    }
+                    if (u == null || closed) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                try {
+                    listener.onUpdate(u);
+                } catch (Exception e) {
+                    close(true);
+                    return;
+                }
+            }
+        }
+
+        synchronized boolean isClosed() { return closed; }
+
+        /**
+         * Stop delivery and unsubscribe; safe to call more than once and from any thread.
+         * {@code notify}: the service ended it, so the listener's {@link Listener#onClose()} runs.
+         */
+        void close(boolean notify) {
+            synchronized (this) {
+                closed = true;
+                finished.clear();
+                partial = null;
+                if (unsubscribed) return;
+                unsubscribed = true;
+            }
+            unsubscribe(this);
+            if (!notify) return;
+            try {
+                listener.onClose();
+            } catch (RuntimeException e) {
+                log.debug("Live listener of {} failed on close: {}", stream.key, e.toString());
+            }
+        }
+    }
+}
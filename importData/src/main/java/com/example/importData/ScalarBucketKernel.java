@@ -0,0 +1,35 @@
+package com.example.importData;
+
+/** Plain-loop {@link BucketKernel}; the fallback when the Vector API module is not available. */
+public class ScalarBucketKernel implements BucketKernel {
+
+    @Override
+    public void max(double[] src, int width, double[] dst) {
+        for (int b = 0; b < dst.length; b++) {
+            int from = b * width;
+            double m = src[from];
+            for (int i = from + 1; i < from + width; i++) m = Math.max(m, src[i]);
+            dst[b] = m;
+        }
+    }
+
+    @Override
+    public void min(double[] src, int width, double[] dst) {
+        for (int b = 0; b < dst.length; b++) {
+            int from = b * width;
+            double m = src[from];
+            for (int i = from + 1; i < from + width; i++) m = Math.min(m, src[i]);
+            dst[b] = m;
+        }
+    }
+
+    @Override
+    public void sum(double[] src, int width, double[] dst) {
+        for (int b = 0; b < dst.length; b++) {
+            int from = b * width;
+            double s = 0;
+            for (int i = from; i < from + width; i++) s += src[i];
+            dst[b] = s;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.importData;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD {@link BucketKernel} on {@code jdk.incubator.vector}. Needs {@code --add-modules jdk.incubator.vector};
+ * only ever loaded through {@link BucketKernels#best()}, which falls back to the scalar kernel otherwise.
+ * Each reduction has its own loop: the operators must be compile-time constants for C2 to emit SIMD code.
+ */
+class VectorBucketKernel implements BucketKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public void max(double[] src, int width, double[] dst) {
+        for (int b = 0; b < dst.length; b++) {
+            int from = b * width, to = from + width, i = from + 1;
+            double r = src[from];
+            if (width >= LANES) {
+                DoubleVector acc = DoubleVector.fromArray(SPECIES, src, from);
+                for (i = from + LANES; i <= to - LANES; i += LANES) acc = acc.max(DoubleVector.fromArray(SPECIES, src, i));
+                r = acc.reduceLanes(VectorOperators.MAX);
+            }
+            for (; i < to; i++) r = Math.max(r, src[i]);
+            dst[b] = r;
+        }
+    }
+
+    @Override
+    public void min(double[] src, int width, double[] dst) {
+        for (int b = 0; b < dst.length; b++) {
+            int from = b * width, to = from + width, i = from + 1;
+            double r = src[from];
+            if (width >= LANES) {
+                DoubleVector acc = DoubleVector.fromArray(SPECIES, src, from);
+                for (i = from + LANES; i <= to - LANES; i += LANES) acc = acc.min(DoubleVector.fromArray(SPECIES, src, i));
+                r = acc.reduceLanes(VectorOperators.MIN);
+            }
+            for (; i < to; i++) r = Math.min(r, src[i]);
+            dst[b] = r;
+        }
+    }
+
+    @Override
+    public void sum(double[] src, int width, double[] dst) {
+        for (int b = 0; b < dst.length; b++) {
+            int from = b * width, to = from + width, i = from + 1;
+            double r = src[from];
+            if (width >= LANES) {
+                DoubleVector acc = DoubleVector.fromArray(SPECIES, src, from);
+                for (i = from + LANES; i <= to - LANES; i += LANES) acc = acc.add(DoubleVector.fromArray(SPECIES, src, i));
+                r = acc.reduceLanes(VectorOperators.ADD);
+            }
+            // scalar tail (or the whole bucket when it is narrower than one vector)
+            for (; i < to; i++) r += src[i];
+            dst[b] = r;
+        }
+    }
+}
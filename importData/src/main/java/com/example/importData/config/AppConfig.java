@@ -1,8 +1,34 @@
 package com.example.importData.config;
 
+import com.example.importData.store.OffHeapBarStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
+
 @Configuration
 @EnableConfigurationProperties({ CddProperties.class })
-public class AppConfig { }
+public class AppConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(AppConfig.class);
+
+    @Bean
+    public OffHeapBarStore offHeapBarStore(CddProperties props) {
+        long limit = OffHeapBarStore.maxDirectMemory();
+        long budget = props.getStoreMaxBytes();
+        if (budget <= 0) {
+            // not configured: size to the JVM instead of refusing to start on a small heap
+            budget = OffHeapBarStore.defaultBudget(limit);
+            log.info("cdd.store-max-bytes not set, using {} bytes (MaxDirectMemorySize {})", budget, limit);
+        } else if (budget > OffHeapBarStore.maxBudget(limit)) {
+            // an explicit budget the JVM cannot back is a configuration error
+            throw new IllegalStateException("cdd.store-max-bytes=" + budget
+                    + " needs -XX:MaxDirectMemorySize of at least " + (budget / 3 * 4)
+                    + " (current limit " + limit + ")");
+        }
+        return new OffHeapBarStore(budget, props.getStoreSegment(), Path.of(props.getStoreSpillDir()));
+    }
+}
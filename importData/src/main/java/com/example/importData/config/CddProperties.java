@@ -1,15 +1,44 @@
 package com.example.importData.config;
 
+import com.example.importData.store.SegmentGranularity;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "cdd")
 public class CddProperties {
     private String baseUrl = "https://www.cryptodatadownload.com";
     private String defaultExchange = "Binance";
+    private String downloadDir = System.getProperty("java.io.tmpdir") + "/cdd-downloads";
+    private int downloadParallelism = 4;
+    private long downloadChunkSize = 8L * 1024 * 1024;
+    private long storeMaxBytes = 0; // 0 = derive from -XX:MaxDirectMemorySize, see OffHeapBarStore.defaultBudget
+    private SegmentGranularity storeSegment = SegmentGranularity.MONTH;
+    private String storeSpillDir = System.getProperty("java.io.tmpdir") + "/cdd-store";
+    private String localDir = "data";
 
     public String getBaseUrl() { return baseUrl; }
     public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
 
     public String getDefaultExchange() { return defaultExchange; }
     public void setDefaultExchange(String defaultExchange) { this.defaultExchange = defaultExchange; }
+
+    public String getDownloadDir() { return downloadDir; }
+    public void setDownloadDir(String downloadDir) { this.downloadDir = downloadDir; }
+
+    public int getDownloadParallelism() { return downloadParallelism; }
+    public void setDownloadParallelism(int downloadParallelism) { this.downloadParallelism = downloadParallelism; }
+
+    public long getDownloadChunkSize() { return downloadChunkSize; }
+    public void setDownloadChunkSize(long downloadChunkSize) { this.downloadChunkSize = downloadChunkSize; }
+
+    public long getStoreMaxBytes() { return storeMaxBytes; }
+    public void setStoreMaxBytes(long storeMaxBytes) { this.storeMaxBytes = storeMaxBytes; }
+
+    public SegmentGranularity getStoreSegment() { return storeSegment; }
+    public void setStoreSegment(SegmentGranularity storeSegment) { this.storeSegment = storeSegment; }
+
+    public String getStoreSpillDir() { return storeSpillDir; }
+    public void setStoreSpillDir(String storeSpillDir) { this.storeSpillDir = storeSpillDir; }
+
+    public String getLocalDir() { return localDir; }
+    public void setLocalDir(String localDir) { this.localDir = localDir; }
 }
@@ -0,0 +1,151 @@
+package com.example.importData.store;
+
+import com.example.importData.dto.BarDto;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One day (or month) of minute bars kept off-heap in a direct ByteBuffer, column by column:
+ * [time (epoch seconds) x n][open x n][high x n][low x n][close x n][volume x n].
+ * Reference counted: the store holds one reference and every lease one more. When the count
+ * reaches zero the native memory is freed right away instead of waiting for the GC to run the
+ * buffer's Cleaner.
+ */
+public final class BarSegment {
+
+    static final int BYTES_PER_BAR = 6 * Long.BYTES;
+
+    // sun.misc.Unsafe#invokeCleaner (jdk.unsupported, no flags needed); null -> leave it to the GC
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> c = Class.forName("sun.misc.Unsafe");
+            Field f = c.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            unsafe = f.get(null);
+            invokeCleaner = c.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final long key;
+    private final int size;
+    private final AtomicInteger refs = new AtomicInteger(1);
+    private volatile ByteBuffer data;
+
+    private BarSegment(long key, int size, ByteBuffer data) {
+        this.key = key;
+        this.size = size;
+        this.data = data;
+    }
+
+    /** Copy time-sorted bars into a new off-heap segment (reference count 1, owned by the caller). */
+    static BarSegment of(long key, List<BarDto> bars) {
+        int n = bars.size();
+        ByteBuffer buf = ByteBuffer.allocateDirect(n * BYTES_PER_BAR).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < n; i++) {
+            BarDto b = bars.get(i);
+            buf.putLong(i * Long.BYTES, b.time().getEpochSecond());
+            buf.putDouble((n + i) * Double.BYTES, b.open());
+            buf.putDouble((2 * n + i) * Double.BYTES, b.high());
+            buf.putDouble((3 * n + i) * Double.BYTES, b.low());
+            buf.putDouble((4 * n + i) * Double.BYTES, b.close());
+            buf.putDouble((5 * n + i) * Double.BYTES, b.volume());
+        }
+        return new BarSegment(key, n, buf);
+    }
+
+    /** Load a segment written by {@link #writeTo(Path)} (reference count 1, owned by the caller). */
+    static BarSegment read(long key, Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(Math.toIntExact(ch.size())).order(ByteOrder.nativeOrder());
+            while (buf.hasRemaining() && ch.read(buf, buf.position()) > 0) { }
+            if (buf.hasRemaining()) throw new IOException("Truncated spill file " + file);
+            return new BarSegment(key, buf.capacity() / BYTES_PER_BAR, buf);
+        }
+    }
+
+    /** Dump the raw columns, e.g. when the store evicts this segment. */
+    void writeTo(Path file) throws IOException {
+        ByteBuffer src = buf().duplicate();
+        src.clear();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (src.hasRemaining()) ch.write(src, src.position());
+        }
+    }
+
+    public long key() { return key; }
+    public int size() { return size; }
+    public long bytes() { return (long) size * BYTES_PER_BAR; }
+
+    // absolute gets never touch the buffer position, so concurrent readers are safe
+    public long epochSecond(int i) { return buf().getLong(i * Long.BYTES); }
+    public Instant time(int i)      { return Instant.ofEpochSecond(epochSecond(i)); }
+    public double open(int i)       { return buf().getDouble((size + i) * Double.BYTES); }
+    public double high(int i)       { return buf().getDouble((2 * size + i) * Double.BYTES); }
+    public double low(int i)        { return buf().getDouble((3 * size + i) * Double.BYTES); }
+    public double close(int i)      { return buf().getDouble((4 * size + i) * Double.BYTES); }
+    public double volume(int i)     { return buf().getDouble((5 * size + i) * Double.BYTES); }
+
+    public BarDto bar(int i) {
+        return new BarDto(time(i), open(i), high(i), low(i), close(i), volume(i));
+    }
+
+    /** Heap copy of the segment; only used when new rows for the same period have to be merged in. */
+    List<BarDto> toBars() {
+        List<BarDto> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) out.add(bar(i));
+        return out;
+    }
+
+    /** Take a reference; fails if the segment was already freed. */
+    boolean retain() {
+        while (true) {
+            int r = refs.get();
+            if (r == 0) return false;
+            if (refs.compareAndSet(r, r + 1)) return true;
+        }
+    }
+
+    void release() {
+        if (refs.decrementAndGet() == 0) {
+            ByteBuffer b = data;
+            data = null;
+            free(b);
+        }
+    }
+
+    private static void free(ByteBuffer b) {
+        if (b == null || INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, b);
+        } catch (ReflectiveOperationException e) {
+            // the buffer's Cleaner still frees it once the GC collects it
+        }
+    }
+
+    private ByteBuffer buf() {
+        ByteBuffer b = data;
+        if (b == null) throw new IllegalStateException("Segment " + key + " was released");
+        return b;
+    }
+}
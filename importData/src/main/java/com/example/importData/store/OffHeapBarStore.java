@@ -0,0 +1,307 @@
+package com.example.importData.store;
+
+import com.example.importData.dto.BarDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Off-heap home for multi-year minute history. Each series is split into per-day or per-month
+ * {@link BarSegment}s. Once the resident size exceeds {@code maxBytes} the least recently used
+ * segments are spilled to files under {@code spillDir} and freed; nothing is dropped. Readers take
+ * a {@link Lease}, which streams the series in time order and reads spilled periods back one at a
+ * time, so a read never needs more than one extra segment of memory.
+ */
+public class OffHeapBarStore implements AutoCloseable {
+
+    private final long maxBytes;
+    private final SegmentGranularity granularity;
+    private final Path spillDir;
+
+    // series key -> state, segments time ordered
+    private final Map<String, Series> series = new HashMap<>();
+    // access-ordered view over resident segments for LRU eviction (value = owning series key)
+    private final LinkedHashMap<BarSegment, String> lru = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+    private long spillSeq;
+
+    private static final class Series {
+        final TreeMap<Long, BarSegment> resident = new TreeMap<>();
+        final TreeMap<Long, Path> spilled = new TreeMap<>();
+    }
+
+    public OffHeapBarStore(long maxBytes, SegmentGranularity granularity, Path spillRoot) {
+        if (maxBytes < 1) throw new IllegalArgumentException("maxBytes must be >= 1");
+        this.maxBytes = maxBytes;
+        this.granularity = granularity;
+        try {
+            Files.createDirectories(spillRoot);
+            // private directory per store, so stale files of an earlier run are never picked up
+            this.spillDir = Files.createTempDirectory(spillRoot, "store-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Direct memory the JVM may reserve ({@code -XX:MaxDirectMemorySize}, which defaults to the
+     * max heap size). Leased and reloaded segments come on top of {@code maxBytes}, so the store
+     * budget must stay well below this.
+     */
+    public static long maxDirectMemory() {
+        try {
+            var hs = ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+            long v = Long.parseLong(hs.getVMOption("MaxDirectMemorySize").getValue());
+            if (v > 0) return v;
+        } catch (RuntimeException e) {
+            // not a HotSpot VM -> fall through to the documented default
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    /** Largest budget that leaves a quarter of {@code directLimit} for leased and read-back segments. */
+    public static long maxBudget(long directLimit) {
+        return directLimit / 4 * 3;
+    }
+
+    /** Budget used when none is configured: {@link #maxBudget}, capped at 1 GiB. */
+    public static long defaultBudget(long directLimit) {
+        return Math.max(1, Math.min(1024L * 1024 * 1024, maxBudget(directLimit)));
+    }
+
+    /**
+     * Add time-sorted, deduplicated bars to a series. Rows for a period that is already stored
+     * (resident or spilled) are merged into that period's segment (same timestamp: new row wins).
+     */
+    public synchronized void put(String seriesKey, List<BarDto> bars) {
+        Series s = series.computeIfAbsent(seriesKey, k -> new Series());
+
+        int from = 0;
+        while (from < bars.size()) {
+            long key = granularity.keyOf(bars.get(from).time().getEpochSecond());
+            int to = from + 1;
+            while (to < bars.size() && granularity.keyOf(bars.get(to).time().getEpochSecond()) == key) to++;
+
+            List<BarDto> rows = bars.subList(from, to);
+            BarSegment old = s.resident.remove(key);
+            if (old != null) {
+                rows = merge(old.toBars(), rows);
+                dropResident(old);
+            } else {
+                Path spilled = s.spilled.remove(key);
+                if (spilled != null) {
+                    BarSegment back = readSpill(key, spilled);
+                    try {
+                        rows = merge(back.toBars(), rows);
+                    } finally {
+                        back.release();
+                    }
+                    deleteQuietly(spilled);
+                }
+            }
+            BarSegment seg = BarSegment.of(key, rows);
+            s.resident.put(key, seg);
+            lru.put(seg, seriesKey);
+            residentBytes += seg.bytes();
+            from = to;
+        }
+        evictOverBudget();
+    }
+
+    /** Snapshot of a series' periods for reading in time order. Close the lease when done. */
+    public synchronized Lease acquire(String seriesKey) {
+        Series s = series.get(seriesKey);
+        List<Long> keys = new ArrayList<>();
+        if (s != null) {
+            keys.addAll(s.resident.keySet());
+            keys.addAll(s.spilled.keySet());
+            keys.sort(Comparator.naturalOrder());
+        }
+        return new Lease(seriesKey, keys);
+    }
+
+    /** Bars stored for a series, resident and spilled. */
+    public synchronized long barCount(String seriesKey) {
+        Series s = series.get(seriesKey);
+        if (s == null) return 0;
+        long n = 0;
+        for (BarSegment seg : s.resident.values()) n += seg.size();
+        for (Path p : s.spilled.values()) n += sizeOnDisk(p) / BarSegment.BYTES_PER_BAR;
+        return n;
+    }
+
+    public synchronized void remove(String seriesKey) {
+        Series s = series.remove(seriesKey);
+        if (s == null) return;
+        for (BarSegment seg : s.resident.values()) dropResident(seg);
+        for (Path p : s.spilled.values()) deleteQuietly(p);
+    }
+
+    public synchronized long residentBytes() { return residentBytes; }
+
+    public synchronized int segmentCount() { return lru.size(); }
+
+    public synchronized int spilledCount() {
+        int n = 0;
+        for (Series s : series.values()) n += s.spilled.size();
+        return n;
+    }
+
+    public long maxBytes() { return maxBytes; }
+
+    /** Free every resident segment and delete the spill files. */
+    @Override
+    public synchronized void close() {
+        for (String k : new ArrayList<>(series.keySet())) remove(k);
+        try (Stream<Path> files = Files.walk(spillDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(OffHeapBarStore::deleteQuietly);
+        } catch (IOException e) {
+            // best effort, the directory lives under a temp root
+        }
+    }
+
+    /** Retained segment for one period of a series, or null if the period is gone (removed). */
+    private synchronized BarSegment load(String seriesKey, long key) {
+        Series s = series.get(seriesKey);
+        if (s == null) return null;
+        BarSegment seg = s.resident.get(key);
+        if (seg != null) {
+            // the store still owns a reference, so retain cannot fail here
+            seg.retain();
+            lru.get(seg);
+            return seg;
+        }
+        Path spilled = s.spilled.get(key);
+        // read back for this lease only; a full-history scan must not flush the hot set
+        return spilled == null ? null : readSpill(key, spilled);
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<BarSegment, String>> it = lru.entrySet().iterator();
+        while (residentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<BarSegment, String> e = it.next();
+            BarSegment seg = e.getKey();
+            Series s = series.get(e.getValue());
+            Path file = spillDir.resolve("seg-" + (spillSeq++) + ".bin");
+            try {
+                seg.writeTo(file);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot spill segment " + seg.key() + " of " + e.getValue(), ex);
+            }
+            it.remove();
+            s.resident.remove(seg.key());
+            s.spilled.put(seg.key(), file);
+            residentBytes -= seg.bytes();
+            seg.release();
+        }
+    }
+
+    private void dropResident(BarSegment seg) {
+        lru.remove(seg);
+        residentBytes -= seg.bytes();
+        seg.release();
+    }
+
+    private static BarSegment readSpill(long key, Path file) {
+        try {
+            return BarSegment.read(key, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read spilled segment " + file, e);
+        }
+    }
+
+    private static long sizeOnDisk(Path p) {
+        try {
+            return Files.size(p);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException e) {
+            // leftovers are removed with the spill directory on close
+        }
+    }
+
+    private static List<BarDto> merge(List<BarDto> existing, List<BarDto> incoming) {
+        TreeMap<Long, BarDto> byTime = new TreeMap<>();
+        for (BarDto b : existing) byTime.put(b.time().getEpochSecond(), b);
+        for (BarDto b : incoming) byTime.put(b.time().getEpochSecond(), b);
+        return new ArrayList<>(byTime.values());
+    }
+
+    /**
+     * Read access to a series in time order. Iterating yields one segment per period; a segment
+     * stays valid until the iterator moves on or the lease is closed.
+     */
+    public final class Lease implements Iterable<BarSegment>, AutoCloseable {
+        private final String seriesKey;
+        private final List<Long> keys;
+        // segment handed out last, and the one hasNext() already loaded; both are released on close
+        private BarSegment current;
+        private BarSegment pending;
+        private boolean closed;
+
+        private Lease(String seriesKey, List<Long> keys) {
+            this.seriesKey = seriesKey;
+            this.keys = keys;
+        }
+
+        public boolean isEmpty() { return keys.isEmpty(); }
+
+        public int periodCount() { return keys.size(); }
+
+        @Override
+        public Iterator<BarSegment> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    synchronized (Lease.this) {
+                        // skip periods removed since the snapshot
+                        while (pending == null && next < keys.size() && !closed) pending = load(seriesKey, keys.get(next++));
+                        return pending != null;
+                    }
+                }
+
+                @Override
+                public BarSegment next() {
+                    synchronized (Lease.this) {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        if (current != null) current.release();
+                        current = pending;
+                        pending = null;
+                        return current;
+                    }
+                }
+            };
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) return;
+            closed = true;
+            if (current != null) current.release();
+            if (pending != null) pending.release();
+            current = null;
+            pending = null;
+        }
+    }
+}
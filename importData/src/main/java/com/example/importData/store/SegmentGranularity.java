@@ -0,0 +1,17 @@
+package com.example.importData.store;
+
+import java.time.LocalDate;
+
+/** How minute bars are partitioned into off-heap segments (UTC calendar boundaries). */
+public enum SegmentGranularity {
+    DAY,
+    MONTH;
+
+    /** Segment key for a bar time: epoch day for DAY, months since 1970-01 for MONTH. */
+    public long keyOf(long epochSecond) {
+        long epochDay = Math.floorDiv(epochSecond, 86_400L);
+        if (this == DAY) return epochDay;
+        LocalDate d = LocalDate.ofEpochDay(epochDay);
+        return (d.getYear() - 1970L) * 12 + (d.getMonthValue() - 1);
+    }
+}
@@ -1,12 +1,15 @@
 package com.example.importData.web;
 
 import com.example.importData.CddBarSeriesService;
+import com.example.importData.IncrementalAggregator;
+import com.example.importData.LiveBarStreamService;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.ta4j.core.BarSeries;
 
 import java.nio.file.Files;
@@ -21,9 +24,11 @@ public class CddBarsController {
     private static final String CLASSPATH_DIR = "sample/BinanceBTCData";
 
     private final CddBarSeriesService service;
+    private final LiveBarStreamService live;
 
-    public CddBarsController(CddBarSeriesService service) {
+    public CddBarsController(CddBarSeriesService service, LiveBarStreamService live) {
         this.service = service;
+        this.live = live;
     }
 
     @GetMapping("/cdd/bars")
@@ -146,6 +151,62 @@ public class CddBarsController {
                 "lastTime", s.getLastBar().getEndTime().toString());
     }
 
+    // ---- LOCAL (live tail of cdd.local-dir) ----
+    // events: "bar" = finished N-minute bar, "partial" = bucket in progress
+    @GetMapping(value = "/cdd/bars/local/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter cddBarsLocalStream(
+        @RequestParam(defaultValue = "Binance") String exchange,
+        @RequestParam String symbol,
+        @RequestParam(name = "tf", defaultValue = "4m") String tf
+    ) throws Exception {
+        SseEmitter emitter = new SseEmitter(0L); // no timeout, lives until the client disconnects or is dropped
+        AutoCloseable sub = live.subscribe(exchange, symbol, parseTf(tf), new LiveBarStreamService.Listener() {
+            @Override
+            public void onUpdate(IncrementalAggregator.Update u) throws Exception {
+                emitter.send(SseEmitter.event().name(u.complete() ? "bar" : "partial").data(u.bar()));
+            }
+
+            @Override
+            public void onClose() {
+                // dropped by the service (too slow, send failed, shutdown) -> end the response
+                emitter.complete();
+            }
+        });
+        Runnable cancel = () -> {
+            try { sub.close(); } catch (Exception ignored) { }
+        };
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(e -> cancel.run());
+        return emitter;
+    }
+
+    // ---- OFF-HEAP STORE ----
+    @GetMapping("/cdd/store/load")
+    public Map<String, Object> storeLoad(
+        @RequestParam String folder,
+        @RequestParam(defaultValue = "Binance") String exchange,
+        @RequestParam String symbol
+    ) throws Exception {
+        long rows = service.loadFolderIntoStore(Paths.get(folder), exchange, symbol);
+        return Map.of("rowsLoaded", rows,
+                "segments", service.store().segmentCount(),
+                "spilledSegments", service.store().spilledCount(),
+                "residentBytes", service.store().residentBytes());
+    }
+
+    @GetMapping("/cdd/bars/store")
+    public Map<String, Object> cddBarsStore(
+        @RequestParam(defaultValue = "Binance") String exchange,
+        @RequestParam String symbol,
+        @RequestParam(name = "tf", defaultValue = "4m") String tf
+    ) throws Exception {
+        BarSeries s = service.fetchSeriesFromStore(exchange, symbol, parseTf(tf));
+        return Map.of("seriesName", s.getName(), "barCount", s.getBarCount(),
+                "lastClose", s.getLastBar().getClosePrice().toString(),
+                "lastTime", s.getLastBar().getEndTime().toString());
+    }
+
     private static Duration parseTf(String tf) {
         String v = tf.trim().toLowerCase();
         if (v.endsWith("m")) {
@@ -0,0 +1,96 @@
+package com.example.importData.cdd;
+
+import com.example.importData.Aggregations;
+import com.example.importData.BarColumns;
+import com.example.importData.BucketKernel;
+import com.example.importData.BucketKernels;
+import com.example.importData.dto.BarDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Timing harness for the aggregation paths, not a unit test: {@code ./gradlew aggregationBenchmark}
+ * (runs on the toolchain JDK with the Vector API module). Optional args: bar count, runs per case.
+ * <p>
+ * Columns per target width:
+ * <ul>
+ *   <li>scalar / vector kernel: max(high) + min(low) + sum(volume) on ready-made column arrays</li>
+ *   <li>list: {@code Aggregations.aggregate(List, Duration)}, the original heap path</li>
+ *   <li>BarColumns.of: the List -> columns copy on its own</li>
+ *   <li>service: {@code aggregate(BarColumns.of(list), target)}, what CddBarSeriesService runs, copy included</li>
+ * </ul>
+ * Each case reports the median and best of the timed runs after a warm-up of the same size.
+ */
+public class AggregationBenchmark {
+
+    private static final int[] WIDTHS = { 4, 24, 60, 240 };
+
+    // results are folded in here so the JIT cannot drop the work
+    private static long sink;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        List<BarDto> bars = minutes(n);
+        BarColumns cols = BarColumns.of(bars);
+        BucketKernel scalar = BucketKernels.scalar();
+        BucketKernel best = BucketKernels.best();
+
+        System.out.printf(Locale.ROOT, "java %s (%s), %d bars, %d runs, vector kernel: %s%n",
+                System.getProperty("java.version"), System.getProperty("java.vm.name"), n, runs,
+                BucketKernels.vectorized() ? "on" : "off (scalar fallback)");
+        System.out.printf(Locale.ROOT, "%-6s %-22s %-22s %-22s %-22s %-22s%n",
+                "width", "scalar kernel", "vector kernel", "list", "BarColumns.of", "service");
+
+        for (int width : WIDTHS) {
+            Duration target = Duration.ofMinutes(width);
+            System.out.printf(Locale.ROOT, "%-6d %-22s %-22s %-22s %-22s %-22s%n", width,
+                    time(runs, () -> kernels(scalar, cols, width)),
+                    time(runs, () -> kernels(best, cols, width)),
+                    time(runs, () -> Aggregations.aggregate(bars, target).size()),
+                    time(runs, () -> BarColumns.of(bars).size()),
+                    time(runs, () -> Aggregations.aggregate(BarColumns.of(bars), target).size()));
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    private static long kernels(BucketKernel k, BarColumns c, int width) {
+        double[] dst = new double[c.size() / width];
+        k.max(c.high(), width, dst);
+        double acc = dst[dst.length - 1];
+        k.min(c.low(), width, dst);
+        acc += dst[dst.length - 1];
+        k.sum(c.volume(), width, dst);
+        return (long) (acc + dst[dst.length - 1]);
+    }
+
+    /** "median / best" in milliseconds. */
+    private static String time(int runs, LongSupplier op) {
+        for (int i = 0; i < runs; i++) sink += op.getAsLong();
+        long[] ns = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long t = System.nanoTime();
+            sink += op.getAsLong();
+            ns[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(ns);
+        return String.format(Locale.ROOT, "%.2f / %.2f ms", ns[runs / 2] / 1e6, ns[0] / 1e6);
+    }
+
+    private static List<BarDto> minutes(int n) {
+        Instant t0 = Instant.parse("2020-01-01T00:00:00Z");
+        List<BarDto> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double base = 30000 + (i % 97) - (i % 13);
+            out.add(new BarDto(t0.plusSeconds(60L * i), base, base + 1 + (i % 5), base - 1 - (i % 3), base + 0.5, 1 + i % 7));
+        }
+        return out;
+    }
+}
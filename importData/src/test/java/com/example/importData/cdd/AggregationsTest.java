@@ -1,6 +1,7 @@
 package com.example.importData.cdd;
 
 import com.example.importData.Aggregations;
+import com.example.importData.IncrementalAggregator;
 import com.example.importData.dto.BarDto;
 import org.junit.jupiter.api.Test;
 
@@ -63,4 +64,14 @@ public class AggregationsTest {
         List<BarDto> agg = Aggregations.aggregate(mins, Duration.ofMinutes(4));
         assertEquals(1, agg.size(), "5 minutes should yield only one 4m bar (tail dropped)");
     }
+
+    @Test
+    void rejectsTargetsThatAreNotWholeMinutes() {
+        List<BarDto> mins = List.of(new BarDto(Instant.parse("2024-08-23T00:00:00Z"), 1, 2, 0.5, 1.5, 1));
+        for (Duration d : List.of(Duration.ofSeconds(90), Duration.ofSeconds(30), Duration.ofMillis(60_500), Duration.ZERO)) {
+            assertThrows(IllegalArgumentException.class, () -> Aggregations.aggregate(mins, d), d.toString());
+            assertThrows(IllegalArgumentException.class, () -> new IncrementalAggregator(d), d.toString());
+        }
+        assertEquals(1, Aggregations.aggregate(mins, Duration.ofSeconds(60)).size());
+    }
 }
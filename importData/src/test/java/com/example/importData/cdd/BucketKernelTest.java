@@ -0,0 +1,77 @@
+package com.example.importData.cdd;
+
+import com.example.importData.Aggregations;
+import com.example.importData.BarColumns;
+import com.example.importData.BucketKernel;
+import com.example.importData.BucketKernels;
+import com.example.importData.dto.BarDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BucketKernelTest {
+
+    @Test
+    void vectorKernelIsActiveInTheBuild() {
+        // build.gradle passes --add-modules jdk.incubator.vector to the test JVM
+        assertTrue(BucketKernels.vectorized());
+    }
+
+    @Test
+    void vectorKernelMatchesScalarKernel() {
+        Random rnd = new Random(42);
+        double[] src = new double[10_000];
+        for (int i = 0; i < src.length; i++) src[i] = rnd.nextDouble() * 1000 - 500;
+
+        BucketKernel vec = BucketKernels.best();
+        BucketKernel sca = BucketKernels.scalar();
+        // widths below, at and above typical vector lengths, with and without a scalar tail
+        for (int width = 1; width <= 70; width++) {
+            int buckets = src.length / width;
+            double[] a = new double[buckets], b = new double[buckets];
+
+            vec.max(src, width, a); sca.max(src, width, b);
+            assertArrayEquals(b, a, "max width=" + width);
+            vec.min(src, width, a); sca.min(src, width, b);
+            assertArrayEquals(b, a, "min width=" + width);
+            vec.sum(src, width, a); sca.sum(src, width, b);
+            assertArrayEquals(b, a, 1e-9, "sum width=" + width);
+        }
+    }
+
+    @Test
+    void columnAggregationMatchesScalarAggregations() {
+        Random rnd = new Random(7);
+        List<BarDto> mins = new ArrayList<>();
+        Instant t0 = Instant.parse("2024-08-23T00:00:00Z");
+        double px = 65000;
+        for (int i = 0; i < 5003; i++) {
+            px += rnd.nextGaussian() * 10;
+            mins.add(new BarDto(t0.plusSeconds(60L * i), px, px + rnd.nextDouble() * 20,
+                    px - rnd.nextDouble() * 20, px + rnd.nextGaussian(), rnd.nextDouble() * 50));
+        }
+        BarColumns cols = BarColumns.of(mins);
+
+        for (int n : new int[] { 1, 4, 24, 60, 240 }) {
+            List<BarDto> expected = Aggregations.aggregate(mins, Duration.ofMinutes(n));
+            List<BarDto> actual = Aggregations.aggregate(cols, Duration.ofMinutes(n));
+            assertEquals(expected.size(), actual.size(), "tf=" + n + "m");
+            for (int i = 0; i < expected.size(); i++) {
+                BarDto e = expected.get(i), a = actual.get(i);
+                assertEquals(e.time(), a.time());
+                assertEquals(e.open(), a.open());
+                assertEquals(e.high(), a.high());
+                assertEquals(e.low(), a.low());
+                assertEquals(e.close(), a.close());
+                // DoubleStream.sum is compensated, the kernels are not
+                assertEquals(e.volume(), a.volume(), 1e-9);
+            }
+        }
+    }
+}
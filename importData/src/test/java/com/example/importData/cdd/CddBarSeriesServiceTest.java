@@ -3,9 +3,12 @@ package com.example.importData.cdd;
 import com.example.importData.CddBarSeriesService;
 import com.example.importData.CddClient;
 import com.example.importData.config.CddProperties;
+import com.example.importData.store.OffHeapBarStore;
+import com.example.importData.store.SegmentGranularity;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,11 +32,17 @@ public class CddBarSeriesServiceTest {
     private static HttpServer httpServer;
     private static String sampleCsv;
 
+    @Autowired CddBarSeriesService service;
+
     @Configuration
     static class TestConfig {
         @Bean CddProperties props() { return new CddProperties(); }
         @Bean CddClient client(CddProperties p) { return new CddClient(p); }
-        @Bean CddBarSeriesService service(CddClient c) { return new CddBarSeriesService(c); }
+        @Bean OffHeapBarStore store() {
+            return new OffHeapBarStore(64L * 1024 * 1024, SegmentGranularity.MONTH,
+                    Paths.get(System.getProperty("java.io.tmpdir"), "cdd-store-test"));
+        }
+        @Bean CddBarSeriesService service(CddClient c, OffHeapBarStore s) { return new CddBarSeriesService(c, s); }
     }
 
     @BeforeAll
@@ -59,7 +68,6 @@ public class CddBarSeriesServiceTest {
     void fetchSeriesFromUrlAggregatesTo4m() throws Exception {
         int port = httpServer.getAddress().getPort();
         String url = "http://localhost:" + port + "/sample.csv";
-        CddBarSeriesService service = new CddBarSeriesService(new CddClient(new CddProperties()));
         var series = service.fetchSeriesFromUrl(url, "BTCUSDT_4m", Duration.ofMinutes(4));
         assertNotNull(series);
         assertEquals("BTCUSDT_4m", series.getName());
@@ -70,7 +78,6 @@ public class CddBarSeriesServiceTest {
     void fetchSeriesFromUrlAggregatesTo24m() throws Exception {
         int port = httpServer.getAddress().getPort();
         String url = "http://localhost:" + port + "/sample.csv";
-        CddBarSeriesService service = new CddBarSeriesService(new CddClient(new CddProperties()));
         var series = service.fetchSeriesFromUrl(url, "BTCUSDT_24m", Duration.ofMinutes(24));
         assertNotNull(series);
         assertEquals("BTCUSDT_24m", series.getName());
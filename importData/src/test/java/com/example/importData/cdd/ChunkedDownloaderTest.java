@@ -0,0 +1,241 @@
+package com.example.importData.cdd;
+
+import com.example.importData.ChunkedDownloader;
+import com.example.importData.CddClient;
+import com.example.importData.config.CddProperties;
+import com.example.importData.dto.BarDto;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkedDownloaderTest {
+
+    private static final int CHUNK = 4096;
+
+    private HttpServer httpServer;
+    private byte[] csv;
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean failChunk3Once = new AtomicBoolean(false);
+
+    @TempDir Path tmp;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        StringBuilder sb = new StringBuilder("unix,date,symbol,open,high,low,close,Volume BTC\n");
+        long t0 = 1724371200L;
+        for (int i = 0; i < 2000; i++) {
+            double base = 65000 + i;
+            sb.append(t0 + 60L * i).append(",x,BTCUSDT,")
+              .append(base).append(',').append(base + 5).append(',').append(base - 5).append(',')
+              .append(base + 1).append(',').append(1.5 + i).append('\n');
+        }
+        csv = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        httpServer = HttpServer.create(new InetSocketAddress(0), 0);
+        // Range-capable stub: answers "bytes=a-b" with 206 + Content-Range
+        httpServer.createContext("/ranged/Binance_BTCUSDT_minute.csv", exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            ranges.add(range == null ? "" : range);
+            if (range == null) {
+                exchange.sendResponseHeaders(200, csv.length);
+                try (OutputStream os = exchange.getResponseBody()) { os.write(csv); }
+                return;
+            }
+            String[] se = range.substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(se[0]);
+            int end = Math.min(Integer.parseInt(se[1]), csv.length - 1);
+            if (start == 3 * CHUNK && failChunk3Once.getAndSet(false)) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + csv.length);
+            exchange.sendResponseHeaders(206, end - start + 1);
+            try (OutputStream os = exchange.getResponseBody()) { os.write(csv, start, end - start + 1); }
+        });
+        // Weak ETag: per RFC 9110 a weak tag in If-Range never matches, so the full file comes back
+        httpServer.createContext("/weak/Binance_BTCUSDT_minute.csv", exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+            ranges.add(range + (ifRange == null ? "" : " if-range=" + ifRange));
+            exchange.getResponseHeaders().set("ETag", "W/\"v1\"");
+            if (range == null || ifRange != null) {
+                exchange.sendResponseHeaders(200, csv.length);
+                try (OutputStream os = exchange.getResponseBody()) { os.write(csv); }
+                return;
+            }
+            String[] se = range.substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(se[0]);
+            int end = Math.min(Integer.parseInt(se[1]), csv.length - 1);
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + csv.length);
+            exchange.sendResponseHeaders(206, end - start + 1);
+            try (OutputStream os = exchange.getResponseBody()) { os.write(csv, start, end - start + 1); }
+        });
+        // Honours the 1-byte probe, then answers every chunk with the whole file (file changed)
+        httpServer.createContext("/changed/Binance_BTCUSDT_minute.csv", exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            ranges.add(range == null ? "" : range);
+            if ("bytes=0-0".equals(range)) {
+                exchange.getResponseHeaders().set("Content-Range", "bytes 0-0/" + csv.length);
+                exchange.sendResponseHeaders(206, 1);
+                try (OutputStream os = exchange.getResponseBody()) { os.write(csv, 0, 1); }
+                return;
+            }
+            exchange.sendResponseHeaders(200, csv.length);
+            try (OutputStream os = exchange.getResponseBody()) { os.write(csv); }
+        });
+        // Stub that ignores Range entirely
+        httpServer.createContext("/plain/Binance_BTCUSDT_minute.csv", exchange -> {
+            exchange.sendResponseHeaders(200, csv.length);
+            try (OutputStream os = exchange.getResponseBody()) { os.write(csv); }
+        });
+        httpServer.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (httpServer != null) httpServer.stop(0);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + httpServer.getAddress().getPort() + path);
+    }
+
+    @Test
+    void downloadsInParallelRangeChunks() throws Exception {
+        ChunkedDownloader d = new ChunkedDownloader(HttpClient.newHttpClient(), 4, CHUNK);
+        Path out = d.download(uri("/ranged/Binance_BTCUSDT_minute.csv"), tmp.resolve("out.csv"));
+
+        assertArrayEquals(csv, Files.readAllBytes(out));
+        int chunks = (csv.length + CHUNK - 1) / CHUNK;
+        assertEquals(chunks + 1, ranges.size(), "probe + one request per chunk");
+        assertFalse(Files.exists(tmp.resolve("out.csv.part")));
+        assertFalse(Files.exists(tmp.resolve("out.csv.progress")));
+    }
+
+    @Test
+    void resumesInterruptedDownloadFromProgressFile() throws Exception {
+        ChunkedDownloader d = new ChunkedDownloader(HttpClient.newHttpClient(), 2, CHUNK);
+        Path target = tmp.resolve("out.csv");
+        failChunk3Once.set(true);
+
+        assertThrows(IllegalStateException.class, () -> d.download(uri("/ranged/Binance_BTCUSDT_minute.csv"), target));
+        assertTrue(Files.exists(tmp.resolve("out.csv.progress")));
+        assertTrue(Files.exists(tmp.resolve("out.csv.part")));
+
+        ranges.clear();
+        Path out = d.download(uri("/ranged/Binance_BTCUSDT_minute.csv"), target);
+
+        assertArrayEquals(csv, Files.readAllBytes(out));
+        // only the probe and the one chunk that failed are requested again
+        assertEquals(List.of("bytes=0-0", "bytes=" + (3 * CHUNK) + "-" + (4 * CHUNK - 1)), ranges);
+    }
+
+    @Test
+    void resumeWithADifferentChunkSizeStartsOver() throws Exception {
+        Path target = tmp.resolve("out.csv");
+        failChunk3Once.set(true);
+        assertThrows(IllegalStateException.class,
+                () -> new ChunkedDownloader(HttpClient.newHttpClient(), 2, CHUNK).download(uri("/ranged/Binance_BTCUSDT_minute.csv"), target));
+        assertTrue(Files.exists(tmp.resolve("out.csv.progress")));
+
+        // indices recorded for CHUNK-sized chunks must not be read as 2*CHUNK-sized ones
+        ranges.clear();
+        Path out = new ChunkedDownloader(HttpClient.newHttpClient(), 2, 2 * CHUNK)
+                .download(uri("/ranged/Binance_BTCUSDT_minute.csv"), target);
+
+        assertArrayEquals(csv, Files.readAllBytes(out));
+        assertEquals((csv.length + 2 * CHUNK - 1) / (2 * CHUNK) + 1, ranges.size(), "probe + every chunk again");
+    }
+
+    @Test
+    void fallsBackToSingleStreamWhenRangeIgnored() throws Exception {
+        ChunkedDownloader d = new ChunkedDownloader(HttpClient.newHttpClient(), 4, CHUNK);
+        Path out = d.download(uri("/plain/Binance_BTCUSDT_minute.csv"), tmp.resolve("out.csv"));
+        assertArrayEquals(csv, Files.readAllBytes(out));
+    }
+
+    @Test
+    void cddClientParsesRangedDownload() throws Exception {
+        CddProperties props = new CddProperties();
+        props.setDownloadDir(tmp.toString());
+        props.setDownloadChunkSize(CHUNK);
+        CddClient client = new CddClient(props);
+
+        var bars = client.fetchFromDirectUrl(uri("/ranged/Binance_BTCUSDT_minute.csv").toString());
+        assertEquals(2000, bars.size());
+        assertEquals(65000.0, bars.get(0).open(), 1e-9);
+        try (var files = Files.list(tmp)) {
+            assertEquals(0, files.count(), "downloaded file is removed after parsing");
+        }
+    }
+
+    @Test
+    void weakEtagIsNotSentAsIfRange() throws Exception {
+        ChunkedDownloader d = new ChunkedDownloader(HttpClient.newHttpClient(), 4, CHUNK);
+        Path out = d.download(uri("/weak/Binance_BTCUSDT_minute.csv"), tmp.resolve("out.csv"));
+
+        assertArrayEquals(csv, Files.readAllBytes(out));
+        assertTrue(ranges.stream().noneMatch(r -> r.contains("if-range")), "weak ETag must not be used: " + ranges);
+        assertEquals((csv.length + CHUNK - 1) / CHUNK + 1, ranges.size());
+    }
+
+    @Test
+    void fullFileAnswerToAChunkRestartsAsSingleStream() throws Exception {
+        ChunkedDownloader d = new ChunkedDownloader(HttpClient.newHttpClient(), 4, CHUNK);
+        Path out = d.download(uri("/changed/Binance_BTCUSDT_minute.csv"), tmp.resolve("out.csv"));
+
+        assertArrayEquals(csv, Files.readAllBytes(out));
+        assertEquals("", ranges.get(ranges.size() - 1), "last request is the plain single-stream GET");
+        assertFalse(Files.exists(tmp.resolve("out.csv.part")));
+        assertFalse(Files.exists(tmp.resolve("out.csv.progress")));
+    }
+
+    @Test
+    void concurrentDownloadsOfTheSameUriDoNotInterfere() throws Exception {
+        CddProperties props = new CddProperties();
+        props.setDownloadDir(tmp.toString());
+        props.setDownloadChunkSize(CHUNK);
+        CddClient client = new CddClient(props);
+        String url = uri("/ranged/Binance_BTCUSDT_minute.csv").toString();
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            Callable<List<BarDto>> fetch = () -> { go.await(); return client.fetchFromDirectUrl(url); };
+            Future<List<BarDto>> a = pool.submit(fetch);
+            Future<List<BarDto>> b = pool.submit(fetch);
+            go.countDown();
+
+            assertEquals(2000, a.get(30, TimeUnit.SECONDS).size());
+            assertEquals(2000, b.get(30, TimeUnit.SECONDS).size());
+        } finally {
+            pool.shutdownNow();
+        }
+        try (var files = Files.list(tmp)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
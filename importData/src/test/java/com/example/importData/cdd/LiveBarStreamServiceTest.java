@@ -0,0 +1,216 @@
+package com.example.importData.cdd;
+
+import com.example.importData.Aggregations;
+import com.example.importData.IncrementalAggregator;
+import com.example.importData.LiveBarStreamService;
+import com.example.importData.config.CddProperties;
+import com.example.importData.dto.BarDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LiveBarStreamServiceTest {
+
+    private static final long T0 = 1724371200L; // 2024-08-23T00:00:00Z
+
+    @TempDir Path tmp;
+
+    private LiveBarStreamService service;
+
+    @AfterEach
+    void stop() throws Exception {
+        if (service != null) service.destroy();
+    }
+
+    private static String row(int i) {
+        double base = 65000 + i;
+        return (T0 + 60L * i) + ",BTCUSDT," + base + "," + (base + 5) + "," + (base - 5) + "," + (base + 1) + "," + (1 + i) + "\n";
+    }
+
+    private static void append(Path file, String text) throws Exception {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    private Path liveFile(int rows) throws Exception {
+        Path file = tmp.resolve("Binance_BTCUSDT_minute.csv");
+        StringBuilder sb = new StringBuilder("unix,symbol,open,high,low,close,Volume BTC\n");
+        for (int i = 0; i < rows; i++) sb.append(row(i));
+        Files.writeString(file, sb.toString(), StandardCharsets.UTF_8);
+
+        CddProperties props = new CddProperties();
+        props.setLocalDir(tmp.toString());
+        service = new LiveBarStreamService(props);
+        return file;
+    }
+
+    @Test
+    void incrementalAggregatorMatchesAggregations() {
+        List<BarDto> mins = new ArrayList<>();
+        Instant t0 = Instant.ofEpochSecond(T0);
+        for (int i = 0; i < 50; i++) {
+            double base = 100 + (i % 7);
+            mins.add(new BarDto(t0.plusSeconds(60L * i), base, base + i % 3, base - i % 5, base + 0.5, 10 + i));
+        }
+        IncrementalAggregator agg = new IncrementalAggregator(Duration.ofMinutes(4));
+        List<BarDto> completed = new ArrayList<>();
+        for (BarDto b : mins) {
+            IncrementalAggregator.Update u = agg.add(b);
+            if (u.complete()) completed.add(u.bar());
+        }
+        assertEquals(Aggregations.aggregate(mins, Duration.ofMinutes(4)), completed);
+        assertEquals(mins.get(49).time(), agg.partial().time());
+        assertNull(agg.add(mins.get(10)), "older bars are ignored");
+    }
+
+    @Test
+    void streamsAppendedRowsAsFinishedAndPartialBars() throws Exception {
+        Path file = tmp.resolve("Binance_BTCUSDT_minute.csv");
+        Files.writeString(file, "# live\nunix,symbol,open,high,low,close,Volume BTC\n" + row(0) + row(1) + row(2),
+                StandardCharsets.UTF_8);
+
+        CddProperties props = new CddProperties();
+        props.setLocalDir(tmp.toString());
+        service = new LiveBarStreamService(props);
+        BlockingQueue<IncrementalAggregator.Update> updates = new LinkedBlockingQueue<>();
+        service.subscribe("Binance", "BTCUSDT", Duration.ofMinutes(2), updates::add);
+
+        // snapshot on subscribe: last finished bar (minutes 0-1) and the bucket in progress (minute 2)
+        IncrementalAggregator.Update first = updates.poll(1, TimeUnit.SECONDS);
+        assertTrue(first.complete());
+        assertEquals(65000.0, first.bar().open(), 1e-9);
+        assertEquals(65001.0 + 5, first.bar().high(), 1e-9);
+        assertEquals(1 + 2, first.bar().volume(), 1e-9);
+        IncrementalAggregator.Update second = updates.poll(1, TimeUnit.SECONDS);
+        assertFalse(second.complete());
+        assertEquals(Instant.ofEpochSecond(T0 + 120), second.bar().time());
+
+        // a row written in two pieces is only parsed once its newline arrives
+        String r3 = row(3);
+        append(file, r3.substring(0, 10));
+        append(file, r3.substring(10));
+        IncrementalAggregator.Update done = updates.poll(10, TimeUnit.SECONDS);
+        assertNotNull(done, "appended row was not picked up");
+        assertTrue(done.complete());
+        assertEquals(Instant.ofEpochSecond(T0 + 180), done.bar().time());
+        assertEquals(65002.0, done.bar().open(), 1e-9);
+        assertEquals(3 + 4, done.bar().volume(), 1e-9);
+
+        append(file, row(4));
+        IncrementalAggregator.Update partial = updates.poll(10, TimeUnit.SECONDS);
+        assertNotNull(partial);
+        assertFalse(partial.complete());
+        assertEquals(65004.0, partial.bar().open(), 1e-9);
+        assertNull(updates.poll(200, TimeUnit.MILLISECONDS), "no duplicate updates");
+    }
+
+    @Test
+    void malformedRowIsSkippedAndTheStreamKeepsGoing() throws Exception {
+        Path file = liveFile(3);
+        BlockingQueue<IncrementalAggregator.Update> updates = new LinkedBlockingQueue<>();
+        service.subscribe("Binance", "BTCUSDT", Duration.ofMinutes(2), updates::add);
+        assertNotNull(updates.poll(1, TimeUnit.SECONDS));
+        assertNotNull(updates.poll(1, TimeUnit.SECONDS));
+
+        append(file, "2024-13-45 99:00:00,BTCUSDT,1,2,0.5,1.5,1\n" + row(3));
+        IncrementalAggregator.Update done = updates.poll(10, TimeUnit.SECONDS);
+        assertNotNull(done, "valid row after a bad one was not delivered");
+        assertEquals(65002.0, done.bar().open(), 1e-9);
+
+        // and the bad line is not re-read on the next append
+        append(file, row(4));
+        IncrementalAggregator.Update next = updates.poll(10, TimeUnit.SECONDS);
+        assertNotNull(next);
+        assertEquals(65004.0, next.bar().open(), 1e-9);
+    }
+
+    @Test
+    void slowSubscriberDoesNotHoldUpOthers() throws Exception {
+        Path file = liveFile(3);
+        CountDownLatch release = new CountDownLatch(1);
+        AutoCloseable slow = service.subscribe("Binance", "BTCUSDT", Duration.ofMinutes(2), u -> release.await());
+        BlockingQueue<IncrementalAggregator.Update> updates = new LinkedBlockingQueue<>();
+        service.subscribe("Binance", "BTCUSDT", Duration.ofMinutes(2), updates::add);
+        assertNotNull(updates.poll(1, TimeUnit.SECONDS));
+        assertNotNull(updates.poll(1, TimeUnit.SECONDS));
+
+        append(file, row(3));
+        assertNotNull(updates.poll(10, TimeUnit.SECONDS), "fast subscriber waited for the blocked one");
+        release.countDown();
+        slow.close();
+    }
+
+    @Test
+    void lastUnsubscribeStopsTailing() throws Exception {
+        liveFile(3);
+        AutoCloseable a = service.subscribe("Binance", "BTCUSDT", Duration.ofMinutes(2), u -> { });
+        AutoCloseable b = service.subscribe("Binance", "BTCUSDT", Duration.ofMinutes(2), u -> { });
+        assertEquals(1, service.streamCount());
+        a.close();
+        assertEquals(1, service.streamCount());
+        b.close();
+        b.close();
+        assertEquals(0, service.streamCount());
+    }
+
+    @Test
+    void subscriberTooFarBehindIsDroppedAndNotified() throws Exception {
+        Path file = liveFile(3);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        service.subscribe("Binance", "BTCUSDT", Duration.ofMinutes(1), new LiveBarStreamService.Listener() {
+            @Override
+            public void onUpdate(IncrementalAggregator.Update update) throws Exception { release.await(); }
+
+            @Override
+            public void onClose() { closed.countDown(); }
+        });
+
+        // the listener is stuck on its first bar while far more than the backlog limit arrives
+        StringBuilder rows = new StringBuilder();
+        for (int i = 3; i < 1200; i++) rows.append(row(i));
+        append(file, rows.toString());
+
+        assertTrue(closed.await(10, TimeUnit.SECONDS), "dropped subscriber was not notified");
+        assertEquals(0, service.streamCount());
+        release.countDown();
+    }
+
+    @Test
+    void shutdownNotifiesSubscribersButCallerCloseDoesNot() throws Exception {
+        liveFile(3);
+        CountDownLatch closedA = new CountDownLatch(1);
+        CountDownLatch closedB = new CountDownLatch(1);
+        AutoCloseable a = service.subscribe("Binance", "BTCUSDT", Duration.ofMinutes(2), listener(closedA));
+        service.subscribe("Binance", "BTCUSDT", Duration.ofMinutes(2), listener(closedB));
+
+        a.close();
+        service.destroy();
+        assertEquals(1, closedA.getCount(), "closing the subscription yourself is not reported back");
+        assertTrue(closedB.await(1, TimeUnit.SECONDS));
+    }
+
+    private static LiveBarStreamService.Listener listener(CountDownLatch closed) {
+        return new LiveBarStreamService.Listener() {
+            @Override
+            public void onUpdate(IncrementalAggregator.Update update) { }
+
+            @Override
+            public void onClose() { closed.countDown(); }
+        };
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.importData.cdd;
+
+import com.example.importData.Aggregations;
+import com.example.importData.dto.BarDto;
+import com.example.importData.store.OffHeapBarStore;
+import com.example.importData.store.SegmentGranularity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapBarStoreTest {
+
+    @TempDir Path tmp;
+
+    private static List<BarDto> minutes(Instant t0, int count) {
+        List<BarDto> out = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double base = 100 + (i % 37) - (i % 11);
+            out.add(new BarDto(t0.plusSeconds(60L * i), base, base + 1 + (i % 5), base - 1 - (i % 3), base + 0.5, 1 + i % 7));
+        }
+        return out;
+    }
+
+    @Test
+    void splitsIntoDailySegmentsAndAggregatesLikeHeapPath() {
+        // 3 days minus 10 minutes, starting mid-day -> 4 daily segments, buckets cross midnight
+        Instant t0 = Instant.parse("2024-08-23T12:03:00Z");
+        List<BarDto> mins = minutes(t0, 3 * 1440 - 10);
+        OffHeapBarStore store = new OffHeapBarStore(Long.MAX_VALUE, SegmentGranularity.DAY, tmp);
+        store.put("btc", mins);
+
+        assertEquals(4, store.segmentCount());
+        try (OffHeapBarStore.Lease lease = store.acquire("btc")) {
+            assertEquals(4, lease.periodCount());
+            for (int n : new int[] { 1, 4, 24, 60 }) {
+                assertEquals(Aggregations.aggregate(mins, Duration.ofMinutes(n)),
+                        Aggregations.aggregateSegments(lease, Duration.ofMinutes(n)), "tf=" + n + "m");
+            }
+        }
+    }
+
+    @Test
+    void mergesRowsForAnExistingSegmentNewRowWins() {
+        Instant t0 = Instant.parse("2024-08-23T00:00:00Z");
+        OffHeapBarStore store = new OffHeapBarStore(Long.MAX_VALUE, SegmentGranularity.MONTH, tmp);
+        store.put("btc", minutes(t0, 10));
+        store.put("btc", List.of(new BarDto(t0.plusSeconds(60L * 5), 1, 2, 0.5, 1.5, 42),
+                                 new BarDto(t0.plusSeconds(60L * 10), 1, 2, 0.5, 1.5, 43)));
+
+        assertEquals(1, store.segmentCount());
+        try (OffHeapBarStore.Lease lease = store.acquire("btc")) {
+            var seg = lease.iterator().next();
+            assertEquals(11, seg.size());
+            assertEquals(42, seg.volume(5), 1e-9);
+            assertEquals(43, seg.volume(10), 1e-9);
+        }
+    }
+
+    @Test
+    void spillsLeastRecentlyUsedSegmentsOverBudgetWithoutLosingBars() {
+        Instant t0 = Instant.parse("2024-08-23T00:00:00Z");
+        long dayBytes = 1440L * 6 * Long.BYTES;
+        OffHeapBarStore store = new OffHeapBarStore(2 * dayBytes, SegmentGranularity.DAY, tmp);
+
+        store.put("a", minutes(t0, 1440));
+        store.put("b", minutes(t0, 1440));
+        try (OffHeapBarStore.Lease a = store.acquire("a")) {
+            a.iterator().next(); // touch "a" so "b" is the eviction candidate
+        }
+        store.put("c", minutes(t0, 1440));
+
+        assertEquals(2, store.segmentCount());
+        assertEquals(1, store.spilledCount());
+        assertTrue(store.residentBytes() <= store.maxBytes());
+        assertEquals(1440, store.barCount("b"));
+        try (OffHeapBarStore.Lease b = store.acquire("b")) {
+            assertEquals(Aggregations.aggregate(minutes(t0, 1440), Duration.ofMinutes(60)),
+                    Aggregations.aggregateSegments(b, Duration.ofMinutes(60)));
+        }
+    }
+
+    @Test
+    void historyLargerThanBudgetIsReadBackCompletely() {
+        // 10 days through a 3-day budget, then a late correction lands in a spilled day
+        Instant t0 = Instant.parse("2024-08-01T00:00:00Z");
+        List<BarDto> mins = minutes(t0, 10 * 1440);
+        OffHeapBarStore store = new OffHeapBarStore(3 * 1440L * 6 * Long.BYTES, SegmentGranularity.DAY, tmp);
+        for (int day = 0; day < 10; day++) store.put("btc", mins.subList(day * 1440, (day + 1) * 1440));
+        BarDto fix = new BarDto(mins.get(5).time(), 1, 2, 0.5, 1.5, 99);
+        store.put("btc", List.of(fix));
+        mins.set(5, fix);
+
+        assertEquals(10 * 1440, store.barCount("btc"));
+        assertTrue(store.spilledCount() >= 7);
+        try (OffHeapBarStore.Lease lease = store.acquire("btc")) {
+            assertEquals(10, lease.periodCount());
+            assertEquals(Aggregations.aggregate(mins, Duration.ofMinutes(240)),
+                    Aggregations.aggregateSegments(lease, Duration.ofMinutes(240)));
+        }
+        store.close();
+    }
+
+    @Test
+    void leasedSegmentStaysReadableAfterEvictionUntilClosed() {
+        Instant t0 = Instant.parse("2024-08-23T00:00:00Z");
+        OffHeapBarStore store = new OffHeapBarStore(1440L * 6 * Long.BYTES, SegmentGranularity.DAY, tmp);
+        store.put("btc", minutes(t0, 1440));
+
+        OffHeapBarStore.Lease lease = store.acquire("btc");
+        var seg = lease.iterator().next();
+        // two more days through a one-day budget spill the leased day
+        store.put("eth", minutes(t0.plusSeconds(86_400), 1440));
+        store.put("sol", minutes(t0.plusSeconds(2 * 86_400), 1440));
+        assertTrue(store.spilledCount() > 0);
+        assertEquals(1, store.segmentCount(), "btc is no longer resident");
+        assertEquals(t0, seg.time(0));
+        assertEquals(1440, seg.size());
+
+        lease.close();
+        assertThrows(IllegalStateException.class, () -> seg.open(0));
+        store.close();
+    }
+
+    @Test
+    void defaultBudgetLeavesAQuarterOfDirectMemoryAndIsCapped() {
+        long gib = 1024L * 1024 * 1024;
+        assertEquals(384L * 1024 * 1024, OffHeapBarStore.defaultBudget(512L * 1024 * 1024));
+        assertEquals(gib, OffHeapBarStore.defaultBudget(8 * gib));
+        assertTrue(OffHeapBarStore.defaultBudget(gib) <= OffHeapBarStore.maxBudget(gib));
+    }
+
+    @Test
+    void leasedSegmentStaysReadableAfterRemoveUntilClosed() {
+        Instant t0 = Instant.parse("2024-08-23T00:00:00Z");
+        OffHeapBarStore store = new OffHeapBarStore(Long.MAX_VALUE, SegmentGranularity.DAY, tmp);
+        store.put("btc", minutes(t0, 60));
+
+        OffHeapBarStore.Lease lease = store.acquire("btc");
+        var seg = lease.iterator().next();
+        store.remove("btc");
+        assertEquals(0, store.residentBytes());
+        assertEquals(t0, seg.time(0));
+
+        lease.close();
+        assertThrows(IllegalStateException.class, () -> seg.open(0));
+    }
+}
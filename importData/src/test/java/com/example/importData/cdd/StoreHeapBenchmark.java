@@ -0,0 +1,133 @@
+package com.example.importData.cdd;
+
+import com.example.importData.Aggregations;
+import com.example.importData.dto.BarDto;
+import com.example.importData.store.OffHeapBarStore;
+import com.example.importData.store.SegmentGranularity;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Heap/GC harness for the off-heap store, not a unit test: {@code ./gradlew storeHeapBenchmark}.
+ * Optional arg: months of minute history (default 48).
+ * <p>
+ * Loads the history one month at a time, once kept as {@code List<BarDto>} on the heap (what the
+ * fetch methods hold) and once put into an {@link OffHeapBarStore}. At every milestone it prints the
+ * heap still in use after a full GC, and the GC count and total collection time (from
+ * {@link GarbageCollectorMXBean}) spent loading the months since the previous row and then
+ * aggregating the whole history to 60m.
+ */
+public class StoreHeapBenchmark {
+
+    private static final int[] MILESTONES = { 1, 6, 12, 24, 48, 96 };
+
+    // keeps aggregation results reachable until they are measured
+    private static Object sink;
+
+    public static void main(String[] args) throws Exception {
+        int months = args.length > 0 ? Integer.parseInt(args[0]) : 48;
+        long limit = OffHeapBarStore.maxDirectMemory();
+        System.out.printf(Locale.ROOT, "java %s, %s, max heap %d MB, max direct %d MB%n",
+                System.getProperty("java.version"), gcNames(), Runtime.getRuntime().maxMemory() >> 20, limit >> 20);
+        System.out.printf(Locale.ROOT, "%-5s %-10s %-8s %-12s %-14s %-14s %-16s%n",
+                "path", "months", "bars", "heap used", "load GCs", "aggregate GCs", "direct resident");
+
+        runHeap(months);
+        Path spill = Files.createTempDirectory("store-heap-bench");
+        try (OffHeapBarStore store = new OffHeapBarStore(OffHeapBarStore.maxBudget(limit), SegmentGranularity.MONTH, spill)) {
+            runStore(store, months);
+        }
+    }
+
+    private static void runHeap(int months) {
+        List<BarDto> all = new ArrayList<>();
+        Gc load = Gc.now();
+        for (int m = 1; m <= months; m++) {
+            all.addAll(month(m - 1));
+            if (!milestone(m, months)) continue;
+            Gc loaded = load.since();
+            Gc agg = Gc.now();
+            sink = Aggregations.aggregate(all, Duration.ofMinutes(60));
+            report("heap", m, all.size(), loaded, agg.since(), 0);
+            load = Gc.now();
+        }
+        sink = all.size();
+    }
+
+    private static void runStore(OffHeapBarStore store, int months) {
+        long bars = 0;
+        Gc load = Gc.now();
+        for (int m = 1; m <= months; m++) {
+            List<BarDto> month = month(m - 1);
+            store.put("btc", month);
+            bars += month.size();
+            if (!milestone(m, months)) continue;
+            Gc loaded = load.since();
+            Gc agg = Gc.now();
+            try (OffHeapBarStore.Lease lease = store.acquire("btc")) {
+                sink = Aggregations.aggregateSegments(lease, Duration.ofMinutes(60));
+            }
+            report("store", m, bars, loaded, agg.since(), store.residentBytes());
+            load = Gc.now();
+        }
+    }
+
+    private static boolean milestone(int m, int months) {
+        for (int x : MILESTONES) if (x == m) return true;
+        return m == months;
+    }
+
+    private static void report(String path, int months, long bars, Gc load, Gc agg, long direct) {
+        sink = null;
+        System.gc();
+        long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf(Locale.ROOT, "%-5s %-10d %-8d %-12s %-14s %-14s %-16s%n", path, months, bars,
+                (used >> 20) + " MB", load, agg, direct == 0 ? "-" : (direct >> 20) + " MB");
+    }
+
+    /** 30 days of minute bars starting {@code index} months after 2018-01. */
+    private static List<BarDto> month(int index) {
+        Instant t0 = Instant.parse("2018-01-01T00:00:00Z").atZone(ZoneOffset.UTC).plusMonths(index).toInstant();
+        List<BarDto> out = new ArrayList<>(30 * 1440);
+        for (int i = 0; i < 30 * 1440; i++) {
+            double base = 30000 + (i % 97) - (i % 13);
+            out.add(new BarDto(t0.plusSeconds(60L * i), base, base + 1 + (i % 5), base - 1 - (i % 3), base + 0.5, 1 + i % 7));
+        }
+        return out;
+    }
+
+    private static String gcNames() {
+        List<String> names = new ArrayList<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) names.add(gc.getName());
+        return String.join(" + ", names);
+    }
+
+    /** Collection count and accumulated collection time over all collectors. */
+    private record Gc(long count, long millis) {
+        static Gc now() {
+            long c = 0, t = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                c += Math.max(0, gc.getCollectionCount());
+                t += Math.max(0, gc.getCollectionTime());
+            }
+            return new Gc(c, t);
+        }
+
+        Gc since() {
+            Gc n = now();
+            return new Gc(n.count - count, n.millis - millis);
+        }
+
+        @Override
+        public String toString() { return count + " / " + millis + " ms"; }
+    }
+}